@@ -0,0 +1,100 @@
+
+package com.insurance.quotemanager.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and reports throughput and allocation changes
+ * per benchmark.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]}.
+ * Exits with status 1 when any benchmark is slower, or allocates more bytes per
+ * operation, than the baseline by more than the threshold (default 10%).
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private static final String PACKAGE_PREFIX = "com.insurance.quotemanager.";
+
+    // Allocation differences below this many bytes per operation are noise
+    private static final double ALLOC_SLACK_BYTES = 8.0;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        System.out.printf("%-64s %14s %14s %9s %12s %12s %9s%n",
+                "Benchmark", "Base score", "Score", "Delta", "Base B/op", "B/op", "Delta");
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-64s %14s %14.4g %9s %12s %12.1f %9s  NEW%n",
+                        entry.getKey(), "-", now.score, "-", "-", now.allocNorm, "-");
+                continue;
+            }
+
+            // Positive deltas are always improvements, whatever the benchmark mode
+            double scoreDelta = percent(base.score, now.score) * (now.higherIsBetter ? 1 : -1);
+            double allocDelta = 0.0 - percent(base.allocNorm, now.allocNorm);
+
+            boolean slower = scoreDelta < -threshold;
+            boolean fatter = allocDelta < -threshold && now.allocNorm - base.allocNorm > ALLOC_SLACK_BYTES;
+            if (slower || fatter) {
+                regressions++;
+            }
+
+            System.out.printf("%-64s %14.4g %14.4g %+8.1f%% %12.1f %12.1f %+8.1f%%%s%n",
+                    entry.getKey(), base.score, now.score, scoreDelta,
+                    base.allocNorm, now.allocNorm, allocDelta,
+                    slower || fatter ? "  REGRESSION" : "");
+        }
+
+        System.out.printf("%n%d benchmark(s) regressed beyond %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String mode = run.path("mode").asText();
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+            String name = run.path("benchmark").asText().replace(PACKAGE_PREFIX, "");
+            results.put(name + " (" + mode + ")", new Result(
+                    run.path("primaryMetric").path("score").asDouble(),
+                    alloc.isMissingNode() ? Double.NaN : alloc.path("score").asDouble(),
+                    "thrpt".equals(mode)));
+        }
+        return results;
+    }
+
+    private static double percent(double base, double now) {
+        if (Double.isNaN(base) || Double.isNaN(now) || base == 0.0) {
+            return 0.0;
+        }
+        return (now - base) / base * 100.0;
+    }
+
+    private record Result(double score, double allocNorm, boolean higherIsBetter) {
+    }
+}
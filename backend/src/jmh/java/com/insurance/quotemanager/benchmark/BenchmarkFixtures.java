@@ -0,0 +1,139 @@
+
+package com.insurance.quotemanager.benchmark;
+
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic, fully populated quote fixtures shared by the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] PROPERTY_TYPES = {
+        "Single Family Home", "Apartment", "Condominium", "Townhouse", "Mobile Home"
+    };
+
+    private static final String[] ADDRESSES = {
+        "12 Ocean Dr, Miami, FL 33139",
+        "450 Market St, San Francisco, CA 94105",
+        "88 Elm St, Springfield, IL 62701",
+        "7 Harbor Way, Tampa, FL 33602",
+        "1600 Main St, Austin, TX 78701"
+    };
+
+    private static final String[] CONSTRUCTION_TYPES = {"Brick", "Wood Frame", "Concrete", "Steel Frame"};
+
+    private static final String[] STATUSES = {"draft", "submitted", "approved", "rejected", "bound"};
+
+    private BenchmarkFixtures() {
+    }
+
+    public static List<QuoteDto> quotes(int count) {
+        Random random = new Random(42);
+        UUID brokerId = UUID.nameUUIDFromBytes("benchmark-broker".getBytes());
+        List<QuoteDto> quotes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            quotes.add(quote(i, brokerId, random));
+        }
+        return quotes;
+    }
+
+    public static QuoteDto quote() {
+        return quotes(1).get(0);
+    }
+
+    public static Quote entity(QuoteDto dto) {
+        Broker broker = new Broker();
+        broker.setId(dto.getBrokerId());
+        broker.setFirstName("Jordan");
+        broker.setLastName("Reyes");
+        broker.setEmail("jordan.reyes@example-brokerage.com");
+        broker.setCompany("Example Brokerage");
+        broker.setCreatedAt(LocalDateTime.of(2023, 1, 9, 8, 30));
+
+        Quote quote = new Quote();
+        quote.setId(dto.getId());
+        quote.setFullName(dto.getFullName());
+        quote.setEmail(dto.getEmail());
+        quote.setPhone(dto.getPhone());
+        quote.setResidentialAddress(dto.getResidentialAddress());
+        quote.setDateOfBirth(dto.getDateOfBirth());
+        quote.setPropertyType(dto.getPropertyType());
+        quote.setConstructionType(dto.getConstructionType());
+        quote.setYearOfConstruction(dto.getYearOfConstruction());
+        quote.setTotalSquareArea(dto.getTotalSquareArea());
+        quote.setNumberOfRooms(dto.getNumberOfRooms());
+        quote.setNumberOfBathrooms(dto.getNumberOfBathrooms());
+        quote.setNumberOfFloors(dto.getNumberOfFloors());
+        quote.setIsOccupiedFullTime(dto.getIsOccupiedFullTime());
+        quote.setSumInsured(dto.getSumInsured());
+        quote.setPolicyStartDate(dto.getPolicyStartDate());
+        quote.setPolicyEndDate(dto.getPolicyEndDate());
+        quote.setPolicyDuration(dto.getPolicyDuration());
+        quote.setRenewalType(dto.getRenewalType());
+        quote.setAutomaticRenewal(dto.getAutomaticRenewal());
+        quote.setNearbyFireStation(dto.getNearbyFireStation());
+        quote.setHighValueItems(dto.getHighValueItems());
+        quote.setFireSafetyMeasures(dto.getFireSafetyMeasures());
+        quote.setFireSafetyOther(dto.getFireSafetyOther());
+        quote.setSecurityFeatures(dto.getSecurityFeatures());
+        quote.setSecurityFeaturesOther(dto.getSecurityFeaturesOther());
+        quote.setInsuranceType(dto.getInsuranceType());
+        quote.setStatus(QuoteStatus.fromValue(dto.getStatus()));
+        quote.setPremium(dto.getPremium());
+        quote.setBroker(broker);
+        quote.setCreatedAt(dto.getCreatedAt());
+        quote.setUpdatedAt(dto.getUpdatedAt());
+        return quote;
+    }
+
+    private static QuoteDto quote(int i, UUID brokerId, Random random) {
+        LocalDate start = LocalDate.of(2025, 1 + random.nextInt(12), 1 + random.nextInt(28));
+        LocalDateTime created = LocalDateTime.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28), 9, 0);
+
+        QuoteDto quote = new QuoteDto();
+        quote.setId(UUID.nameUUIDFromBytes(("quote-" + i).getBytes()));
+        quote.setFullName("Client " + i);
+        quote.setEmail("client" + i + "@example.com");
+        quote.setPhone("+1-555-01" + String.format("%02d", i % 100));
+        quote.setResidentialAddress(ADDRESSES[i % ADDRESSES.length]);
+        quote.setDateOfBirth(LocalDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        quote.setPropertyType(PROPERTY_TYPES[i % PROPERTY_TYPES.length]);
+        quote.setConstructionType(CONSTRUCTION_TYPES[random.nextInt(CONSTRUCTION_TYPES.length)]);
+        quote.setYearOfConstruction(1900 + random.nextInt(125));
+        quote.setTotalSquareArea(BigDecimal.valueOf(600 + random.nextInt(4000)));
+        quote.setNumberOfRooms(1 + random.nextInt(8));
+        quote.setNumberOfBathrooms(1 + random.nextInt(4));
+        quote.setNumberOfFloors(1 + random.nextInt(3));
+        quote.setIsOccupiedFullTime(random.nextBoolean());
+        quote.setSumInsured(BigDecimal.valueOf(100_000 + random.nextInt(900_000)));
+        quote.setPolicyStartDate(start);
+        quote.setPolicyEndDate(start.plusYears(1));
+        quote.setPolicyDuration("12 months");
+        quote.setRenewalType("annual");
+        quote.setAutomaticRenewal(random.nextBoolean());
+        quote.setNearbyFireStation(random.nextBoolean());
+        quote.setHighValueItems(random.nextBoolean());
+        quote.setFireSafetyMeasures(List.of("Smoke Detectors", "Fire Extinguishers", "Sprinkler System"));
+        quote.setFireSafetyOther(null);
+        quote.setSecurityFeatures(List.of("Alarm System", "Deadbolt Locks"));
+        quote.setSecurityFeaturesOther("Gated community");
+        quote.setInsuranceType("Homeowners");
+        quote.setStatus(STATUSES[i % STATUSES.length]);
+        quote.setPremium(BigDecimal.valueOf(400 + random.nextInt(2000), 0));
+        quote.setBrokerId(brokerId);
+        quote.setCreatedAt(created);
+        quote.setUpdatedAt(created.plusDays(random.nextInt(30)));
+        return quote;
+    }
+}
@@ -0,0 +1,108 @@
+
+package com.insurance.quotemanager.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for comparing request execution modes against a
+ * running instance, e.g. the default platform-thread Tomcat pool and the
+ * {@code virtual-threads} profile.
+ * <p>
+ * Usage: {@code LoadBenchmark <url> [concurrencyLevels] [secondsPerLevel] [bearerToken]},
+ * for example {@code http://localhost:8080/api/quotes?limit=20 16,64,256,1024 20}.
+ * For each concurrency level the generator keeps that many requests in flight for
+ * the given duration and prints throughput and latency percentiles.
+ */
+public final class LoadBenchmark {
+
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    private LoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadBenchmark <url> [concurrencyLevels] [secondsPerLevel] [bearerToken]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "16,64,256,1024").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+        if (args.length > 3) {
+            builder.header("Authorization", "Bearer " + args[3]);
+        }
+        HttpRequest request = builder.build();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        // Warm up the server's JIT and connection pool before measuring
+        run(client, request, levels[0], Math.max(5, seconds / 4));
+
+        System.out.printf("%-12s %12s %10s %10s %10s %10s %8s%n",
+                "Concurrency", "Requests/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "Errors");
+        for (int level : levels) {
+            Result result = run(client, request, level, seconds);
+            System.out.printf("%-12d %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    level, result.throughput, result.percentile(50), result.percentile(90),
+                    result.percentile(99), result.percentile(100), result.errors);
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds)
+            throws InterruptedException {
+        long[] latencies = new long[MAX_SAMPLES];
+        AtomicInteger samples = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long started = System.nanoTime();
+        long deadline = started + Duration.ofSeconds(seconds).toNanos();
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else {
+                            int slot = samples.getAndIncrement();
+                            if (slot < latencies.length) {
+                                latencies[slot] = latency;
+                            }
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // Let the requests already in flight finish
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - started;
+
+        int count = Math.min(samples.get(), latencies.length);
+        long[] recorded = Arrays.copyOf(latencies, count);
+        Arrays.sort(recorded);
+        return new Result(recorded, (count + errors.get()) * 1_000_000_000.0 / elapsed, errors.get());
+    }
+
+    private record Result(long[] sortedLatencies, double throughput, long errors) {
+        double percentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+
+package com.insurance.quotemanager.benchmark;
+
+import com.insurance.quotemanager.dto.PremiumCalculationResultDto;
+import com.insurance.quotemanager.dto.PremiumSweepRangeDto;
+import com.insurance.quotemanager.dto.PremiumSweepRequestDto;
+import com.insurance.quotemanager.dto.PremiumSweepResultDto;
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.rating.PremiumEstimateCache;
+import com.insurance.quotemanager.rating.RatingTableStore;
+import com.insurance.quotemanager.service.PremiumCalculationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled rating tables, with and without the estimate cache, against the previous
+ * map-based lookups.
+ * Run with {@code -prof gc} to compare bytes allocated per estimate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PremiumCalculationBenchmark {
+
+    private PremiumCalculationService service;
+    private PremiumCalculationService alwaysMiss;
+    private LegacyPremiumCalculator legacy;
+    private QuoteDto quote;
+    private PremiumSweepRequestDto sweep;
+
+    @Setup
+    public void setUp() {
+        service = new PremiumCalculationService();
+        // A zero-size cache misses on every call: the cost of rating plus the cache lookup
+        alwaysMiss = new PremiumCalculationService(new PremiumEstimateCache(0), new RatingTableStore());
+        legacy = new LegacyPremiumCalculator();
+
+        quote = BenchmarkFixtures.quote();
+        // 100 coverage amounts x 25 construction years x 4 months = 10,000 points
+        sweep = new PremiumSweepRequestDto(quote,
+                new PremiumSweepRangeDto(100_000, 595_000, 5_000.0),
+                new PremiumSweepRangeDto(1950, 2022, 3.0),
+                new PremiumSweepRangeDto(1, 12, 3.0));
+    }
+
+    @Benchmark
+    public PremiumCalculationResultDto compiledTables() {
+        return service.calculatePremium(quote);
+    }
+
+    @Benchmark
+    public PremiumCalculationResultDto cacheMissEveryCall() {
+        return alwaysMiss.calculatePremium(quote);
+    }
+
+    @Benchmark
+    public PremiumCalculationResultDto legacyMaps() {
+        return legacy.calculatePremium(quote, "FL");
+    }
+
+    @Benchmark
+    public PremiumCalculationResultDto premiumRange() {
+        return service.calculatePremiumRange(quote);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PremiumSweepResultDto sweep10k() {
+        return service.sweepPremiums(sweep);
+    }
+}
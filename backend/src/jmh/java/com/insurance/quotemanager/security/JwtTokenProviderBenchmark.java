@@ -0,0 +1,49 @@
+
+package com.insurance.quotemanager.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done on login and on every authenticated request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "insuranceQuoteManagerSecretKey12345678901234567890");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 86400000);
+        tokenProvider.init();
+        userId = UUID.nameUUIDFromBytes("benchmark-user".getBytes());
+        token = tokenProvider.generateToken(userId);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(userId);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public UUID getUserIdFromToken() {
+        return tokenProvider.getUserIdFromToken(token);
+    }
+}
@@ -0,0 +1,62 @@
+
+package com.insurance.quotemanager.service;
+
+import com.insurance.quotemanager.benchmark.BenchmarkFixtures;
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.mapper.QuoteMapperImpl;
+import com.insurance.quotemanager.model.Quote;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping cost of the 30-field quote, which dominates the list endpoints.
+ * The {@code beanUtils*} benchmarks keep the reflective mapping the generated mapper replaced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteMappingBenchmark {
+
+    private QuoteService quoteService;
+    private QuoteDto dto;
+    private Quote entity;
+
+    @Setup
+    public void setUp() {
+        quoteService = new QuoteService();
+        ReflectionTestUtils.setField(quoteService, "quoteMapper", new QuoteMapperImpl());
+        dto = BenchmarkFixtures.quote();
+        entity = BenchmarkFixtures.entity(dto);
+    }
+
+    @Benchmark
+    public QuoteDto convertToDto() {
+        return quoteService.convertToDto(entity);
+    }
+
+    @Benchmark
+    public Quote convertToEntity() {
+        return quoteService.convertToEntity(dto);
+    }
+
+    @Benchmark
+    public QuoteDto beanUtilsToDto() {
+        QuoteDto quoteDto = new QuoteDto();
+        BeanUtils.copyProperties(entity, quoteDto);
+        quoteDto.setBrokerId(entity.getBroker().getId());
+        return quoteDto;
+    }
+
+    @Benchmark
+    public Quote beanUtilsToEntity() {
+        Quote quote = new Quote();
+        BeanUtils.copyProperties(dto, quote);
+        return quote;
+    }
+}
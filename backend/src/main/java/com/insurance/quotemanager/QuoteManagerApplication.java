@@ -4,9 +4,11 @@ package com.insurance.quotemanager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class QuoteManagerApplication {
     public static void main(String[] args) {
         SpringApplication.run(QuoteManagerApplication.class, args);
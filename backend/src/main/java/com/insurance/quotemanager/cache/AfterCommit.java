@@ -0,0 +1,55 @@
+
+package com.insurance.quotemanager.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory updates until the surrounding transaction commits, so rolled-back
+ * changes never reach them. Runs immediately outside a transaction.
+ */
+public final class AfterCommit {
+    
+    private AfterCommit() {
+    }
+    
+    public static void run(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+    
+    /**
+     * Like {@link #run(Runnable)}, then runs {@code completed} once the transaction has ended,
+     * whether it committed or rolled back.
+     */
+    public static void run(Runnable update, Runnable completed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                update.run();
+            } finally {
+                completed.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        update.run();
+                    }
+                } finally {
+                    completed.run();
+                }
+            }
+        });
+    }
+}
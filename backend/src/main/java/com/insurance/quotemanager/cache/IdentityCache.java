@@ -0,0 +1,148 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.insurance.quotemanager.dto.BrokerDto;
+import com.insurance.quotemanager.mapper.BrokerMapper;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.repository.UserCredentials;
+import com.insurance.quotemanager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded in-process cache of rarely changing identity rows: brokers by id and email,
+ * and user credentials by email.
+ * <p>
+ * Broker writes made through {@code BrokerService} are written through or evicted
+ * here. Users are cached as {@link UserCredentials} rather than entities, and every
+ * committed user insert, update or delete evicts them (see {@link UserCacheListener}),
+ * including the entry remembering that an email had no user, so a new user can log in
+ * straight away. Entries also expire after {@code identity-cache.ttl}, which bounds
+ * staleness for writes made outside this instance. Broker misses are not cached; an
+ * email with no user is remembered for {@code identity-cache.missing-user-ttl}, so
+ * repeated logins for unknown emails do not reach the database.
+ */
+@Component
+public class IdentityCache implements MeterBinder {
+    
+    private final BrokerRepository brokerRepository;
+    private final UserRepository userRepository;
+    private final BrokerMapper brokerMapper;
+    
+    private final Cache<UUID, BrokerDto> brokersById;
+    private final Cache<String, BrokerDto> brokersByEmail;
+    private final Cache<String, UserCredentials> usersByEmail;
+    private final Cache<String, Boolean> missingUserEmails;
+    
+    @Autowired
+    public IdentityCache(BrokerRepository brokerRepository,
+                         UserRepository userRepository,
+                         BrokerMapper brokerMapper,
+                         @Value("${identity-cache.max-size:10000}") long maxSize,
+                         @Value("${identity-cache.ttl:10m}") Duration ttl,
+                         @Value("${identity-cache.missing-user-ttl:1m}") Duration missingUserTtl) {
+        this.brokerRepository = brokerRepository;
+        this.userRepository = userRepository;
+        this.brokerMapper = brokerMapper;
+        this.brokersById = newCache(maxSize, ttl);
+        this.brokersByEmail = newCache(maxSize, ttl);
+        this.usersByEmail = newCache(maxSize, ttl);
+        this.missingUserEmails = newCache(maxSize, missingUserTtl);
+    }
+    
+    public Optional<BrokerDto> findBroker(UUID id) {
+        return Optional.ofNullable(brokersById.get(id, key -> brokerRepository.findById(key)
+                .map(brokerMapper::toDto)
+                .orElse(null)));
+    }
+    
+    public Optional<BrokerDto> findBrokerByEmail(String email) {
+        BrokerDto broker = brokersByEmail.get(email, key -> brokerRepository.findByEmail(key)
+                .map(brokerMapper::toDto)
+                .orElse(null));
+        if (broker != null) {
+            brokersById.put(broker.getId(), broker);
+        }
+        return Optional.ofNullable(broker);
+    }
+    
+    public Optional<UserCredentials> findUserByEmail(String email) {
+        if (missingUserEmails.getIfPresent(email) != null) {
+            return Optional.empty();
+        }
+        UserCredentials user = usersByEmail.get(email, key -> userRepository.findCredentialsByEmail(key)
+                .orElse(null));
+        if (user == null) {
+            missingUserEmails.put(email, Boolean.TRUE);
+        }
+        return Optional.ofNullable(user);
+    }
+    
+    /**
+     * Drops the user's credentials, under the current email and any previous one, and
+     * forgets that the email had no user.
+     */
+    public void evictUser(UUID id, String email) {
+        usersByEmail.invalidate(email);
+        missingUserEmails.invalidate(email);
+        usersByEmail.asMap().values().removeIf(user -> user.id().equals(id));
+    }
+    
+    /**
+     * Write-through after a broker has been saved. Any entry under the broker's
+     * previous email is dropped.
+     */
+    public void putBroker(BrokerDto broker) {
+        evictBroker(broker.getId());
+        brokersById.put(broker.getId(), broker);
+        brokersByEmail.put(broker.getEmail(), broker);
+    }
+    
+    public void evictBroker(UUID id) {
+        BrokerDto previous = brokersById.getIfPresent(id);
+        brokersById.invalidate(id);
+        if (previous != null) {
+            brokersByEmail.invalidate(previous.getEmail());
+        }
+        // The email entry may outlive the id entry, so sweep for it as well
+        brokersByEmail.asMap().values().removeIf(broker -> id.equals(broker.getId()));
+    }
+    
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("brokersById", brokersById.stats());
+        stats.put("brokersByEmail", brokersByEmail.stats());
+        stats.put("usersByEmail", usersByEmail.stats());
+        stats.put("missingUserEmails", missingUserEmails.stats());
+        return stats;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, brokersById, "brokersById");
+        CaffeineCacheMetrics.monitor(registry, brokersByEmail, "brokersByEmail");
+        CaffeineCacheMetrics.monitor(registry, usersByEmail, "usersByEmail");
+        CaffeineCacheMetrics.monitor(registry, missingUserEmails, "missingUserEmails");
+    }
+    
+    private static <K, V> Cache<K, V> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
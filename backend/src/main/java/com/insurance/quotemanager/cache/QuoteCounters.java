@@ -0,0 +1,237 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteTally;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live quote counts and premium / sum insured totals per (broker, status, insurance type),
+ * kept in {@link LongAdder} and {@link DoubleAdder} cells so concurrent writers do not
+ * contend and reads never touch the database.
+ * <p>
+ * {@code QuoteService} reports every change, applied once its transaction commits. The
+ * cells are rebuilt from a grouped query at startup and reconciled against it every
+ * {@code quote-counters.reconcile-interval}, which repairs drift from writes made outside
+ * this instance.
+ * <p>
+ * A change applied while a reconciliation runs may or may not be in its database totals,
+ * so a cell is only adjusted if nothing wrote to it, or was about to, between the totals
+ * being read and the cell being adjusted. Other cells are left for the next run.
+ */
+@Component
+public class QuoteCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteCounters.class);
+
+    // Differences in summed amounts below this are floating-point noise, not drift
+    private static final double AMOUNT_TOLERANCE = 0.005;
+
+    private final QuoteRepository quoteRepository;
+
+    private final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QuoteCounters(QuoteRepository quoteRepository) {
+        this.quoteRepository = quoteRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        cells.clear();
+        List<QuoteTally> tallies = quoteRepository.tallyByBrokerStatusAndInsuranceType();
+        for (QuoteTally tally : tallies) {
+            cell(keyOf(tally)).add(tally, 1);
+        }
+        log.info("Quote counters rebuilt from {} groups", tallies.size());
+    }
+
+    /**
+     * Adjusts every cell not written during the run to the database totals. Returns the
+     * number of cells that had drifted.
+     */
+    @Scheduled(fixedDelayString = "${quote-counters.reconcile-interval:PT5M}",
+            initialDelayString = "${quote-counters.reconcile-interval:PT5M}")
+    public int reconcile() {
+        // Versions before the totals are read; a cell written since may or may not be in them
+        Map<Key, Long> versions = new HashMap<>();
+        cells.forEach((key, cell) -> versions.put(key, cell.version.get()));
+
+        Map<Key, QuoteTally> actual = new HashMap<>();
+        for (QuoteTally tally : quoteRepository.tallyByBrokerStatusAndInsuranceType()) {
+            actual.put(keyOf(tally), tally);
+        }
+
+        Set<Key> keys = new HashSet<>(cells.keySet());
+        keys.addAll(actual.keySet());
+        int drifted = 0;
+        int skipped = 0;
+        for (Key key : keys) {
+            QuoteTally expected = actual.getOrDefault(key,
+                    new QuoteTally(key.brokerId(), key.status(), key.insuranceType(), 0, null, null));
+            switch (cell(key).reconcile(expected, versions.getOrDefault(key, 0L))) {
+                case DRIFTED -> drifted++;
+                case SKIPPED -> skipped++;
+                default -> {
+                }
+            }
+        }
+        if (drifted > 0) {
+            log.warn("Quote counters: corrected drift in {} of {} groups ({} written meanwhile, left for the next run)",
+                    drifted, keys.size(), skipped);
+        }
+        return drifted;
+    }
+
+    public void added(QuoteTally quote) {
+        afterCommit(List.of(keyOf(quote)), () -> cell(keyOf(quote)).add(quote, 1));
+    }
+
+    public void removed(QuoteTally quote) {
+        afterCommit(List.of(keyOf(quote)), () -> cell(keyOf(quote)).add(quote, -1));
+    }
+
+    public void changed(QuoteTally before, QuoteTally after) {
+        afterCommit(List.of(keyOf(before), keyOf(after)), () -> {
+            cell(keyOf(before)).add(before, -1);
+            cell(keyOf(after)).add(after, 1);
+        });
+    }
+
+    public void changedStatus(Collection<QuoteTally> before, QuoteStatus newStatus) {
+        List<Key> keys = new ArrayList<>();
+        for (QuoteTally quote : before) {
+            keys.add(keyOf(quote));
+            keys.add(new Key(quote.brokerId(), newStatus, quote.insuranceType()));
+        }
+        afterCommit(keys, () -> {
+            for (QuoteTally quote : before) {
+                cell(keyOf(quote)).add(quote, -1);
+                cell(new Key(quote.brokerId(), newStatus, quote.insuranceType())).add(quote, 1);
+            }
+        });
+    }
+
+    /**
+     * Current totals of every non-empty group matching the given filters; a null filter
+     * matches everything.
+     */
+    public List<QuoteTally> snapshot(UUID brokerId, QuoteStatus status, String insuranceType) {
+        List<QuoteTally> tallies = new ArrayList<>();
+        cells.forEach((key, cell) -> {
+            if (matches(brokerId, key.brokerId()) && matches(status, key.status())
+                    && matches(insuranceType, key.insuranceType())) {
+                QuoteTally tally = cell.toTally(key);
+                if (tally.count() != 0) {
+                    tallies.add(tally);
+                }
+            }
+        });
+        return tallies;
+    }
+
+    // The cells are pending from the change being made until its transaction ends, covering
+    // the moment it commits and enters the database totals before being applied here
+    private void afterCommit(List<Key> keys, Runnable update) {
+        List<Cell> touched = keys.stream().map(this::cell).toList();
+        touched.forEach(cell -> cell.pending.incrementAndGet());
+        AfterCommit.run(update, () -> touched.forEach(cell -> cell.pending.decrementAndGet()));
+    }
+
+    private Cell cell(Key key) {
+        return cells.computeIfAbsent(key, k -> new Cell());
+    }
+
+    private static Key keyOf(QuoteTally tally) {
+        return new Key(tally.brokerId(), tally.status(), tally.insuranceType());
+    }
+
+    private static boolean matches(Object filter, Object value) {
+        return filter == null || Objects.equals(filter, value);
+    }
+
+    private record Key(UUID brokerId, QuoteStatus status, String insuranceType) {
+    }
+
+    private enum Reconciliation { IN_STEP, DRIFTED, SKIPPED }
+
+    private static final class Cell {
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder premium = new DoubleAdder();
+        private final DoubleAdder sumInsured = new DoubleAdder();
+        // Changes not yet committed or rolled back, and changes applied so far
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong version = new AtomicLong();
+
+        // The version moves first, so a reconciliation that sees it unchanged after adjusting
+        // knows any change still being added was not in the amounts it read
+        void add(QuoteTally tally, int sign) {
+            version.incrementAndGet();
+            count.add(sign * tally.count());
+            premium.add(sign * amount(tally.premium()));
+            sumInsured.add(sign * amount(tally.sumInsured()));
+        }
+
+        Reconciliation reconcile(QuoteTally expected, long versionBeforeTotals) {
+            if (pending.get() > 0 || version.get() != versionBeforeTotals) {
+                return Reconciliation.SKIPPED;
+            }
+            long countDelta = expected.count() - count.sum();
+            double premiumDelta = amount(expected.premium()) - premium.sum();
+            double sumInsuredDelta = amount(expected.sumInsured()) - sumInsured.sum();
+            boolean drifted = countDelta != 0
+                    || Math.abs(premiumDelta) > AMOUNT_TOLERANCE
+                    || Math.abs(sumInsuredDelta) > AMOUNT_TOLERANCE;
+            if (!drifted) {
+                return Reconciliation.IN_STEP;
+            }
+            count.add(countDelta);
+            premium.add(premiumDelta);
+            sumInsured.add(sumInsuredDelta);
+            if (version.get() != versionBeforeTotals) {
+                // A change landed while adjusting, so whether the amounts read included it is unknown
+                count.add(-countDelta);
+                premium.add(-premiumDelta);
+                sumInsured.add(-sumInsuredDelta);
+                return Reconciliation.SKIPPED;
+            }
+            return Reconciliation.DRIFTED;
+        }
+
+        QuoteTally toTally(Key key) {
+            return new QuoteTally(key.brokerId(), key.status(), key.insuranceType(), count.sum(),
+                    money(premium.sum()), money(sumInsured.sum()));
+        }
+
+        private static double amount(BigDecimal value) {
+            return value != null ? value.doubleValue() : 0.0;
+        }
+
+        private static BigDecimal money(double value) {
+            return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.dto.QuoteSearchHitDto;
+import com.insurance.quotemanager.dto.QuoteSearchResultDto;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteSearchDocument;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over quote client names, emails and addresses, one per broker.
+ * <p>
+ * Each field is split into lower-case alphanumeric tokens kept in a sorted term map, so a
+ * query token matches whole terms and term prefixes with one range lookup instead of a
+ * {@code LIKE '%x%'} scan. Every query token must match; hits are ranked by the sum of
+ * their best match per token, where a whole-term match outranks a prefix and the name
+ * outranks the email, which outranks the address. Only the best {@code offset + limit}
+ * matches are kept while searching, so a broad query across every broker costs a bounded
+ * heap rather than a sort of every match.
+ * <p>
+ * The index is built from a projection query at startup and updated by {@code QuoteService}
+ * after each committed create, update, status change and delete.
+ */
+@Component
+public class QuoteSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteSearchIndex.class);
+
+    private static final int NAME = 1;
+    private static final int EMAIL = 2;
+    private static final int ADDRESS = 4;
+
+    // Best match first
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::score).reversed()
+            .thenComparing(candidate -> candidate.document().fullName(),
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(candidate -> candidate.document().id());
+
+    private final QuoteRepository quoteRepository;
+
+    private final Map<UUID, BrokerIndex> brokers = new ConcurrentHashMap<>();
+
+    // Quote id -> broker, to find the index holding a quote that moves or is deleted
+    private final Map<UUID, UUID> brokerOfQuote = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QuoteSearchIndex(QuoteRepository quoteRepository) {
+        this.quoteRepository = quoteRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        brokers.clear();
+        brokerOfQuote.clear();
+        List<QuoteSearchDocument> documents = quoteRepository.findAllSearchDocuments();
+        for (QuoteSearchDocument document : documents) {
+            index(document);
+        }
+        log.info("Quote search index built from {} quotes across {} brokers", documents.size(), brokers.size());
+    }
+
+    public void put(QuoteSearchDocument document) {
+        AfterCommit.run(() -> index(document));
+    }
+
+    public void remove(UUID quoteId) {
+        AfterCommit.run(() -> unindex(quoteId));
+    }
+
+    /**
+     * Records a status change for quotes currently in {@code expectedStatus}, or for all of
+     * them when it is null.
+     */
+    public void changedStatus(Collection<UUID> quoteIds, QuoteStatus newStatus, QuoteStatus expectedStatus) {
+        AfterCommit.run(() -> {
+            for (UUID quoteId : quoteIds) {
+                UUID brokerId = brokerOfQuote.get(quoteId);
+                BrokerIndex index = brokerId != null ? brokers.get(brokerId) : null;
+                if (index != null) {
+                    index.changeStatus(quoteId, newStatus, expectedStatus);
+                }
+            }
+        });
+    }
+
+    /**
+     * Ranked quotes matching every token of {@code query}, optionally within one broker's
+     * book, skipping the first {@code offset} hits.
+     */
+    public QuoteSearchResultDto search(String query, UUID brokerId, int offset, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        TopHits hits = new TopHits((int) Math.min((long) offset + limit, Integer.MAX_VALUE));
+        if (!tokens.isEmpty()) {
+            if (brokerId != null) {
+                BrokerIndex index = brokers.get(brokerId);
+                if (index != null) {
+                    index.search(tokens, hits);
+                }
+            } else {
+                for (BrokerIndex index : brokers.values()) {
+                    index.search(tokens, hits);
+                }
+            }
+        }
+
+        List<Candidate> ranked = hits.ranked();
+        List<QuoteSearchHitDto> items = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            QuoteSearchDocument document = ranked.get(i).document();
+            items.add(new QuoteSearchHitDto(document.id(), document.brokerId(), document.fullName(),
+                    document.email(), document.residentialAddress(), document.status().getValue(),
+                    ranked.get(i).score()));
+        }
+        return new QuoteSearchResultDto(items, hits.total, offset, limit);
+    }
+
+    public int size() {
+        return brokerOfQuote.size();
+    }
+
+    private void index(QuoteSearchDocument document) {
+        UUID previousBroker = brokerOfQuote.put(document.id(), document.brokerId());
+        if (previousBroker != null && !previousBroker.equals(document.brokerId())) {
+            BrokerIndex previous = brokers.get(previousBroker);
+            if (previous != null) {
+                previous.remove(document.id());
+            }
+        }
+        brokers.computeIfAbsent(document.brokerId(), id -> new BrokerIndex()).put(document);
+    }
+
+    private void unindex(UUID quoteId) {
+        UUID brokerId = brokerOfQuote.remove(quoteId);
+        BrokerIndex index = brokerId != null ? brokers.get(brokerId) : null;
+        if (index != null) {
+            index.remove(quoteId);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean partOfToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (partOfToken && start < 0) {
+                start = i;
+            } else if (!partOfToken && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int weight(int fields) {
+        if ((fields & NAME) != 0) return 3;
+        if ((fields & EMAIL) != 0) return 2;
+        return 1;
+    }
+
+    private static final class BrokerIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, QuoteSearchDocument> documents = new HashMap<>();
+        // Term -> quote id -> bit set of the fields containing the term
+        private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+
+        void put(QuoteSearchDocument document) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(document.id());
+                documents.put(document.id(), document);
+                Map<String, Integer> terms = new HashMap<>();
+                addTerms(terms, document.fullName(), NAME);
+                addTerms(terms, document.email(), EMAIL);
+                addTerms(terms, document.residentialAddress(), ADDRESS);
+                terms.forEach((term, fields) ->
+                        postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), fields));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID quoteId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(quoteId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void changeStatus(UUID quoteId, QuoteStatus newStatus, QuoteStatus expectedStatus) {
+            lock.writeLock().lock();
+            try {
+                QuoteSearchDocument document = documents.get(quoteId);
+                if (document != null && (expectedStatus == null || expectedStatus == document.status())) {
+                    documents.put(quoteId, new QuoteSearchDocument(document.id(), document.brokerId(),
+                            document.fullName(), document.email(), document.residentialAddress(), newStatus));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void search(List<String> tokens, TopHits hits) {
+            lock.readLock().lock();
+            try {
+                Map<UUID, Integer> scores = null;
+                for (String token : tokens) {
+                    Map<UUID, Integer> tokenScores = match(token);
+                    if (scores == null) {
+                        scores = tokenScores;
+                    } else {
+                        // Every token must match
+                        scores.keySet().retainAll(tokenScores.keySet());
+                        scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                    }
+                    if (scores.isEmpty()) {
+                        return;
+                    }
+                }
+                scores.forEach((id, score) -> hits.offer(documents.get(id), score));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Best score per quote for one query token: a whole-term match counts double
+        private Map<UUID, Integer> match(String token) {
+            Map<UUID, Integer> scores = new HashMap<>();
+            for (Map.Entry<String, Map<UUID, Integer>> entry
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                int multiplier = entry.getKey().equals(token) ? 2 : 1;
+                entry.getValue().forEach((id, fields) ->
+                        scores.merge(id, multiplier * weight(fields), Math::max));
+            }
+            return scores;
+        }
+
+        private void removeLocked(UUID quoteId) {
+            QuoteSearchDocument previous = documents.remove(quoteId);
+            if (previous == null) {
+                return;
+            }
+            Set<String> terms = new LinkedHashSet<>();
+            terms.addAll(tokenize(previous.fullName()));
+            terms.addAll(tokenize(previous.email()));
+            terms.addAll(tokenize(previous.residentialAddress()));
+            for (String term : terms) {
+                Map<UUID, Integer> quotes = postings.get(term);
+                if (quotes != null) {
+                    quotes.remove(quoteId);
+                    if (quotes.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        private static void addTerms(Map<String, Integer> terms, String text, int field) {
+            for (String term : tokenize(text)) {
+                terms.merge(term, field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private record Candidate(QuoteSearchDocument document, int score) {
+    }
+
+    /**
+     * The best {@code capacity} matches offered so far, and how many were offered in all.
+     */
+    private static final class TopHits {
+        private final int capacity;
+        // Worst kept match at the head, ready to be displaced by a better one
+        private final PriorityQueue<Candidate> kept = new PriorityQueue<>(RANKING.reversed());
+        private int total;
+
+        TopHits(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(QuoteSearchDocument document, int score) {
+            total++;
+            Candidate candidate = new Candidate(document, score);
+            if (kept.size() < capacity) {
+                kept.add(candidate);
+            } else if (capacity > 0 && RANKING.compare(candidate, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(candidate);
+            }
+        }
+
+        List<Candidate> ranked() {
+            List<Candidate> ranked = new ArrayList<>(kept);
+            ranked.sort(RANKING);
+            return ranked;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user's cached credentials once a write to the user commits, whichever
+ * code path made it.
+ */
+@Component
+public class UserCacheListener {
+    
+    private final IdentityCache identityCache;
+    
+    // Lazy: the listener is created with the entity manager factory the cache depends on
+    @Autowired
+    public UserCacheListener(@Lazy IdentityCache identityCache) {
+        this.identityCache = identityCache;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void written(User user) {
+        AfterCommit.run(() -> identityCache.evictUser(user.getId(), user.getEmail()));
+    }
+}
@@ -0,0 +1,21 @@
+
+package com.insurance.quotemanager.config;
+
+import com.insurance.quotemanager.repository.SqlExecutionTimer;
+import com.insurance.quotemanager.repository.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+    
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlExecutionTimer.class.getName());
+        };
+    }
+}
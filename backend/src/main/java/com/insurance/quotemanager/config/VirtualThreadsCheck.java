@@ -0,0 +1,31 @@
+
+package com.insurance.quotemanager.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns at startup when virtual threads are asked for on a runtime older than Java 21.
+ * Spring Boot ignores {@code spring.threads.virtual.enabled} there without a word, and
+ * requests stay on Tomcat's platform-thread pool sized for virtual threads.
+ */
+@Component
+public class VirtualThreadsCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @PostConstruct
+    public void check() {
+        int feature = Runtime.version().feature();
+        if (virtualThreadsEnabled && feature < 21) {
+            log.warn("spring.threads.virtual.enabled is set but this is Java {}; requests run on platform threads. "
+                    + "Build with -Pjava21 and run on Java 21+ to use virtual threads", feature);
+        }
+    }
+}
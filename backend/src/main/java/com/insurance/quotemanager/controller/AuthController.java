@@ -2,24 +2,30 @@
 package com.insurance.quotemanager.controller;
 
 import com.insurance.quotemanager.dto.AuthRequest;
-import com.insurance.quotemanager.dto.AuthResponse;
 import com.insurance.quotemanager.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
     
+    // The same answer for an unknown email and a wrong password
+    private static final Map<String, String> INVALID_CREDENTIALS = Map.of("error", "Invalid email or password");
+    
     @Autowired
     private AuthService authService;
     
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest loginRequest) {
-        AuthResponse authResponse = authService.login(loginRequest);
-        return ResponseEntity.ok(authResponse);
+    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest loginRequest) {
+        return authService.login(loginRequest)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(INVALID_CREDENTIALS));
     }
 }
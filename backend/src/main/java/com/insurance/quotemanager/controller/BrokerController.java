@@ -2,11 +2,14 @@
 package com.insurance.quotemanager.controller;
 
 import com.insurance.quotemanager.dto.BrokerDto;
+import com.insurance.quotemanager.repository.BrokerTableVersion;
 import com.insurance.quotemanager.service.BrokerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,9 +23,18 @@ public class BrokerController {
     private BrokerService brokerService;
     
     @GetMapping
-    public ResponseEntity<List<BrokerDto>> getAllBrokers() {
+    public ResponseEntity<List<BrokerDto>> getAllBrokers(WebRequest request) {
+        // Read before the list, so a concurrent write can only make the tag older than the body
+        BrokerTableVersion version = brokerService.getBrokerTableVersion();
+        String eTag = ETags.brokers(version.count(), version.lastUpdatedAt());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<BrokerDto> brokers = brokerService.getAllBrokers();
-        return ResponseEntity.ok(brokers);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(brokers);
     }
     
     @GetMapping("/{id}")
@@ -0,0 +1,39 @@
+
+package com.insurance.quotemanager.controller;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Strong entity tags for the read endpoints that clients poll. Each tag is built from a
+ * version that a cheap query or in-memory read can produce, so {@code If-None-Match} is
+ * checked before the resource is loaded, mapped or serialized.
+ */
+final class ETags {
+    
+    private ETags() {
+    }
+    
+    static String quote(UUID id, LocalDateTime updatedAt) {
+        return "\"" + id + "-" + micros(updatedAt) + "\"";
+    }
+    
+    static String brokers(long count, LocalDateTime lastUpdatedAt) {
+        return "\"brokers-" + count + "-" + micros(lastUpdatedAt) + "\"";
+    }
+    
+    static String ratingFactors(String factorsVersion) {
+        return "\"factors-" + factorsVersion + "\"";
+    }
+    
+    // Microseconds, the precision the database keeps, in base 36
+    private static String micros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        Instant instant = timestamp.toInstant(ZoneOffset.UTC);
+        return Long.toString(instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000, 36);
+    }
+}
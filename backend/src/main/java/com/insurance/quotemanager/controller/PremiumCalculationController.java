@@ -1,21 +1,34 @@
 
 package com.insurance.quotemanager.controller;
 
+import com.insurance.quotemanager.dto.PremiumSweepRequestDto;
+import com.insurance.quotemanager.dto.PremiumSweepResultDto;
 import com.insurance.quotemanager.dto.QuoteDto;
 import com.insurance.quotemanager.dto.PremiumCalculationResultDto;
+import com.insurance.quotemanager.service.PremiumBatchEstimationService;
 import com.insurance.quotemanager.service.PremiumCalculationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/premium-calculations")
 @CrossOrigin(origins = "*")
 public class PremiumCalculationController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     @Autowired
     private PremiumCalculationService premiumCalculationService;
     
+    @Autowired
+    private PremiumBatchEstimationService premiumBatchEstimationService;
+    
     @PostMapping("/estimate")
     public ResponseEntity<PremiumCalculationResultDto> calculatePremium(@RequestBody QuoteDto quoteDto) {
         PremiumCalculationResultDto result = premiumCalculationService.calculatePremium(quoteDto);
@@ -28,8 +41,32 @@ public class PremiumCalculationController {
         return ResponseEntity.ok(result);
     }
     
+    @PostMapping(value = "/estimate-batch", consumes = NDJSON, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> calculatePremiumBatch(InputStream quotes) {
+        StreamingResponseBody body = output -> premiumBatchEstimationService.estimate(quotes, output);
+        return ResponseEntity.ok(body);
+    }
+    
+    @PostMapping("/sweep")
+    public ResponseEntity<PremiumSweepResultDto> sweepPremiums(@RequestBody PremiumSweepRequestDto request) {
+        PremiumSweepResultDto result = premiumCalculationService.sweepPremiums(request);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/factors")
-    public ResponseEntity<Object> getCalculationFactors() {
-        return ResponseEntity.ok(premiumCalculationService.getCalculationFactors());
+    public ResponseEntity<Object> getCalculationFactors(WebRequest request) {
+        String eTag = ETags.ratingFactors(premiumCalculationService.getCalculationFactorsVersion());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(premiumCalculationService.getCalculationFactors());
+    }
+    
+    @PostMapping("/factors/reload")
+    public ResponseEntity<Object> reloadCalculationFactors() {
+        return ResponseEntity.ok(premiumCalculationService.reloadCalculationFactors());
     }
 }
@@ -2,13 +2,34 @@
 package com.insurance.quotemanager.controller;
 
 import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.dto.QuoteEventDto;
+import com.insurance.quotemanager.dto.QuotePageDto;
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.dto.QuoteSearchResultDto;
+import com.insurance.quotemanager.dto.QuoteStatsDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkResultDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkUpdateDto;
+import com.insurance.quotemanager.dto.QuoteStatusDto;
+import com.insurance.quotemanager.service.QuoteExportService;
+import com.insurance.quotemanager.service.QuoteFileFormat;
+import com.insurance.quotemanager.service.QuoteImportService;
 import com.insurance.quotemanager.service.QuoteService;
+import com.insurance.quotemanager.service.QuoteStatsService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -16,33 +37,90 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class QuoteController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private static final String CSV = "text/csv";
+    
     @Autowired
     private QuoteService quoteService;
     
+    @Autowired
+    private QuoteImportService quoteImportService;
+    
+    @Autowired
+    private QuoteExportService quoteExportService;
+    
+    @Autowired
+    private QuoteStatsService quoteStatsService;
+    
     @GetMapping
-    public ResponseEntity<List<QuoteDto>> getAllQuotes(
+    public ResponseEntity<QuotePageDto<?>> getQuotes(
+            QuoteSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(required = false) String fields) {
+        QuotePageDto<?> page = quoteService.searchQuotes(criteria, cursor, limit, sort, fields);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<QuoteSearchResultDto> findQuotes(
+            @RequestParam String q,
             @RequestParam(required = false) UUID brokerId,
-            @RequestParam(required = false) String status) {
-        
-        List<QuoteDto> quotes;
-        
-        if (brokerId != null && status != null) {
-            quotes = quoteService.getQuotesByBrokerAndStatus(brokerId, status);
-        } else if (brokerId != null) {
-            quotes = quoteService.getQuotesByBroker(brokerId);
-        } else if (status != null) {
-            quotes = quoteService.getQuotesByStatus(status);
-        } else {
-            quotes = quoteService.getAllQuotes();
-        }
-        
-        return ResponseEntity.ok(quotes);
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit) {
+        QuoteSearchResultDto result = quoteService.findQuotes(q, brokerId, offset, limit);
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<QuoteStatsDto> getQuoteStats(QuoteSearchCriteria criteria) {
+        QuoteStatsDto stats = quoteStatsService.getQuoteStats(criteria);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/stats/live")
+    public ResponseEntity<QuoteStatsDto> getLiveQuoteStats(
+            @RequestParam(required = false) UUID brokerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String insuranceType) {
+        QuoteStatsDto stats = quoteStatsService.getLiveStats(brokerId, status, insuranceType);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportQuotes(
+            QuoteSearchCriteria criteria,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        QuoteFileFormat fileFormat = QuoteFileFormat.fromName(format);
+        StreamingResponseBody body = output -> quoteExportService.exportQuotes(criteria, fileFormat, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fileFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"quotes." + fileFormat.name().toLowerCase() + "\"")
+                .body(body);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<QuoteDto> getQuoteById(@PathVariable UUID id) {
+    public ResponseEntity<QuoteDto> getQuoteById(@PathVariable UUID id, WebRequest request) {
+        // A revalidation only needs the quote's updatedAt, not the quote
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<LocalDateTime> updatedAt = quoteService.findQuoteUpdatedAt(id);
+            if (updatedAt.isPresent() && request.checkNotModified(ETags.quote(id, updatedAt.get()))) {
+                return null;
+            }
+        }
         QuoteDto quote = quoteService.getQuoteById(id);
-        return ResponseEntity.ok(quote);
+        return ResponseEntity.ok()
+                .eTag(ETags.quote(quote.getId(), quote.getUpdatedAt()))
+                .cacheControl(CacheControl.noCache())
+                .body(quote);
+    }
+    
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<QuoteEventDto>> getQuoteHistory(@PathVariable UUID id) {
+        return ResponseEntity.ok(quoteService.getQuoteHistory(id));
     }
     
     @PostMapping
@@ -51,6 +129,14 @@ public class QuoteController {
         return new ResponseEntity<>(createdQuote, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importQuotes(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream quotes) {
+        QuoteFileFormat format = QuoteFileFormat.fromMediaType(contentType);
+        StreamingResponseBody body = output -> quoteImportService.importQuotes(quotes, format, output);
+        return ResponseEntity.ok(body);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<QuoteDto> updateQuote(@PathVariable UUID id, @RequestBody QuoteDto quoteDto) {
         QuoteDto updatedQuote = quoteService.updateQuote(id, quoteDto);
@@ -58,11 +144,20 @@ public class QuoteController {
     }
     
     @PatchMapping("/{id}/status")
-    public ResponseEntity<QuoteDto> updateQuoteStatus(
+    public ResponseEntity<QuoteStatusDto> updateQuoteStatus(
             @PathVariable UUID id,
-            @RequestParam String status) {
-        QuoteDto updatedQuote = quoteService.updateQuoteStatus(id, status);
-        return ResponseEntity.ok(updatedQuote);
+            @RequestParam String status,
+            @RequestParam(required = false) String expectedStatus,
+            @RequestParam(required = false) Long expectedVersion) {
+        QuoteStatusDto updatedStatus = quoteService.updateQuoteStatus(id, status, expectedStatus, expectedVersion);
+        return ResponseEntity.ok(updatedStatus);
+    }
+    
+    @PatchMapping("/status")
+    public ResponseEntity<QuoteStatusBulkResultDto> updateQuoteStatuses(
+            @Valid @RequestBody QuoteStatusBulkUpdateDto request) {
+        QuoteStatusBulkResultDto result = quoteService.updateQuoteStatuses(request);
+        return ResponseEntity.ok(result);
     }
     
     @DeleteMapping("/{id}")
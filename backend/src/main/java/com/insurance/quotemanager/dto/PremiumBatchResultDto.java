@@ -0,0 +1,18 @@
+
+package com.insurance.quotemanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PremiumBatchResultDto {
+    // 0-based position of the record in the submitted batch
+    private long index;
+    private PremiumCalculationResultDto result;
+    private String error;
+}
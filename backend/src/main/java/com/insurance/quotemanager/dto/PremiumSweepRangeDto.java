@@ -0,0 +1,16 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PremiumSweepRangeDto {
+    private double from;
+    private double to;
+    // Defaults to 1
+    private Double step;
+}
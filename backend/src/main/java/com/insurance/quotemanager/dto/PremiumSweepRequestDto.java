@@ -0,0 +1,18 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PremiumSweepRequestDto {
+    // Supplies every rating input that is not swept
+    private QuoteDto quote;
+    private PremiumSweepRangeDto sumInsured;
+    private PremiumSweepRangeDto yearOfConstruction;
+    // 1-12
+    private PremiumSweepRangeDto startMonth;
+}
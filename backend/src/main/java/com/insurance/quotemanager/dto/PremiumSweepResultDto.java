@@ -0,0 +1,20 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PremiumSweepResultDto {
+    // The only yearOfConstruction entry when the year is unknown and not swept
+    public static final int UNKNOWN_YEAR = -1;
+
+    private double[] sumInsured;
+    private int[] yearOfConstruction;
+    private int[] startMonth;
+    // premiums[(m * years + y) * sumInsured + s], sumInsured varying fastest
+    private double[] premiums;
+}
@@ -45,6 +45,7 @@ public class QuoteDto {
     private String status;
     private BigDecimal premium;
     private UUID brokerId;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
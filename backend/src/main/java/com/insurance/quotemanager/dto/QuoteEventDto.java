@@ -0,0 +1,30 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteEventDto {
+    private long sequence;
+    private Instant recordedAt;
+    private String type;
+    private UUID quoteId;
+    private UUID brokerId;
+    private UUID actorId;
+    private String status;
+    private String previousStatus;
+    private String insuranceType;
+    private BigDecimal premium;
+    private BigDecimal sumInsured;
+    private String fullName;
+    private String email;
+    private String residentialAddress;
+}
@@ -0,0 +1,15 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteImportErrorDto {
+    // 1-based record number in the uploaded file, not counting a CSV header
+    private long row;
+    private String error;
+}
@@ -0,0 +1,16 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteImportSummaryDto {
+    private long rows;
+    private long imported;
+    private long failed;
+    private long elapsedMs;
+}
@@ -0,0 +1,19 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuotePageDto<T> {
+    // Full quotes, or property-name maps when only some fields were requested
+    private List<T> items;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class QuoteSearchCriteria {
+    private UUID brokerId;
+    private String status;
+    private String insuranceType;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    
+    private BigDecimal minPremium;
+    private BigDecimal maxPremium;
+}
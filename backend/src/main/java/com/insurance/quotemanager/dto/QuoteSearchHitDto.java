@@ -0,0 +1,21 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteSearchHitDto {
+    private UUID id;
+    private UUID brokerId;
+    private String fullName;
+    private String email;
+    private String residentialAddress;
+    private String status;
+    private int score;
+}
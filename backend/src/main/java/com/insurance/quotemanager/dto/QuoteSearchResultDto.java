@@ -0,0 +1,19 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteSearchResultDto {
+    // Best match first
+    private List<QuoteSearchHitDto> items;
+    private int total;
+    private int offset;
+    private int limit;
+}
@@ -0,0 +1,22 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteStatsBucketDto {
+    // Status, broker id or "yyyy-MM" month, depending on the grouping
+    private String key;
+    private long count;
+    private long boundCount;
+    // boundCount / count
+    private double conversionRate;
+    private BigDecimal totalPremium;
+    private BigDecimal totalSumInsured;
+}
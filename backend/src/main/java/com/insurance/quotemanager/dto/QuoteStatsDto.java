@@ -0,0 +1,19 @@
+
+package com.insurance.quotemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteStatsDto {
+    private QuoteStatsBucketDto totals;
+    private List<QuoteStatsBucketDto> byStatus;
+    private List<QuoteStatsBucketDto> byBroker;
+    private List<QuoteStatsBucketDto> byInsuranceType;
+    private List<QuoteStatsBucketDto> byMonth;
+}
@@ -0,0 +1,21 @@
+
+package com.insurance.quotemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class QuoteStatusBulkUpdateDto {
+    @NotEmpty
+    private List<UUID> ids;
+    
+    @NotBlank
+    private String status;
+    
+    // When set, only quotes currently in this status are moved
+    private String expectedStatus;
+}
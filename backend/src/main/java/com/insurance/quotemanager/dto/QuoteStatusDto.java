@@ -0,0 +1,20 @@
+
+package com.insurance.quotemanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteStatusDto {
+    private UUID id;
+    private String status;
+    // The version the transition gave the quote, for the next conditional update
+    private Long version;
+}
@@ -0,0 +1,12 @@
+
+package com.insurance.quotemanager.exception;
+
+/**
+ * A write lost a race with a concurrent change to the same row.
+ */
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+
+package com.insurance.quotemanager.exception;
+
+/**
+ * A request was turned away because the work it needs is already saturated. It is thrown
+ * while the server is overloaded, so it carries no stack trace.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message, null, false, false);
+    }
+}
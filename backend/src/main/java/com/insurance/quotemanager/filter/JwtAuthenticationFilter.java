@@ -2,6 +2,9 @@
 package com.insurance.quotemanager.filter;
 
 import com.insurance.quotemanager.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -20,14 +24,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider tokenProvider;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer validTokenTimer;
+    
+    private Timer invalidTokenTimer;
+    
+    @PostConstruct
+    public void init() {
+        validTokenTimer = verifyTimer("valid");
+        invalidTokenTimer = verifyTimer("invalid");
+    }
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long started = System.nanoTime();
+        Timer timer = invalidTokenTimer;
+        String jwt = null;
         try {
-            String jwt = getJwtFromRequest(request);
+            jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                UUID userId = tokenProvider.getUserIdFromToken(jwt);
+            UUID userId = StringUtils.hasText(jwt) ? tokenProvider.verifyToken(jwt) : null;
+            if (userId != null) {
+                timer = validTokenTimer;
                 // In a complete implementation, we would set the authentication in the security context
                 // For simplicity, we're just validating the token here
                 request.setAttribute("userId", userId);
@@ -35,10 +56,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
+        if (StringUtils.hasText(jwt)) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
         
         filterChain.doFilter(request, response);
     }
     
+    private Timer verifyTimer(String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Time to verify the bearer token of a request")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
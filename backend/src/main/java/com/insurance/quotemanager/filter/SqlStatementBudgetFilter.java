@@ -0,0 +1,95 @@
+
+package com.insurance.quotemanager.filter;
+
+import com.insurance.quotemanager.repository.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements each request issues and warns when a request goes over
+ * the configured budget, so N+1 loading regressions show up in the logs.
+ * <p>
+ * The statement count and the time spent executing them are also recorded per endpoint
+ * as {@code http.server.requests.sql.statements} and {@code http.server.requests.sql.time},
+ * tagged like {@code http.server.requests} with the method and URI template.
+ * <p>
+ * Counts are per thread. Streaming endpoints (export, import, batch estimates) return a
+ * body that Spring MVC writes on an async worker after this filter has returned, so the
+ * SQL it issues is never on the request thread. Such requests are left out rather than
+ * recorded with a count that misses their real work.
+ */
+@Component
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+    
+    @Value("${sql.statement-budget.per-request:10}")
+    private int statementBudget;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Meters per "METHOD uri-template", so a request does not pay for a registry lookup
+    private final Map<String, EndpointMeters> endpointMeters = new ConcurrentHashMap<>();
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                record(request);
+            }
+        }
+    }
+    
+    private void record(HttpServletRequest request) {
+        int statements = SqlStatementCounter.count();
+        if (statements > statementBudget) {
+            logger.warn(request.getMethod() + " " + request.getRequestURI() + " issued " + statements
+                    + " SQL statements, over the budget of " + statementBudget);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug(request.getMethod() + " " + request.getRequestURI() + " issued " + statements
+                    + " SQL statements");
+        }
+        
+        EndpointMeters meters = meters(request);
+        meters.statements().record(statements);
+        meters.time().record(SqlStatementCounter.executionNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    private EndpointMeters meters(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        return endpointMeters.computeIfAbsent(method + " " + uri, key -> new EndpointMeters(
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .description("SQL statements issued per request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.sql.time")
+                        .description("Time per request spent executing SQL")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry)));
+    }
+    
+    private record EndpointMeters(DistributionSummary statements, Timer time) {
+    }
+}
@@ -0,0 +1,298 @@
+
+package com.insurance.quotemanager.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.insurance.quotemanager.journal.QuoteEventCodec.RECORD_HEADER_SIZE;
+
+/**
+ * One memory-mapped journal file: a 24-byte header ({@code "QJNL"}, format version, flags,
+ * sequence of its first event, and for a compacted segment the last sequence it folded)
+ * followed by records back to back. The file is mapped at its full size up front and the
+ * zero bytes after the last record mark the end.
+ * <p>
+ * Each segment keeps the offsets of every quote's records, so one quote's history is read
+ * without decoding the others.
+ * <p>
+ * Appends come from one thread at a time (the journal's append lock); readers see records
+ * up to the published {@link #end}, so they never read one that is half written. Forcing
+ * takes no lock: overlapping forces of the same range only repeat the write-back.
+ */
+final class JournalSegment {
+
+    static final int HEADER_SIZE = 24;
+
+    private static final int MAGIC = 0x514A4E4C;
+    private static final short FORMAT_VERSION = 2;
+    private static final short COMPACTED = 1;
+
+    private final Path file;
+    private final long baseSequence;
+    private final boolean compacted;
+    private final long foldedThrough;
+    private final MappedByteBuffer buffer;
+
+    // Quote id -> offsets of its records, oldest first; each array is replaced, never modified
+    private final Map<UUID, int[]> offsets = new ConcurrentHashMap<>();
+
+    // Published after each append; readers stop here
+    private volatile int end;
+    private volatile long lastSequence;
+    private volatile Instant lastRecordedAt;
+
+    private final AtomicInteger forced;
+    private boolean torn;
+
+    private JournalSegment(Path file, long baseSequence, boolean compacted, long foldedThrough,
+                           MappedByteBuffer buffer) {
+        this.file = file;
+        this.baseSequence = baseSequence;
+        this.compacted = compacted;
+        this.foldedThrough = foldedThrough;
+        this.buffer = buffer;
+        this.end = HEADER_SIZE;
+        this.forced = new AtomicInteger(HEADER_SIZE);
+        this.lastSequence = baseSequence - 1;
+    }
+
+    /**
+     * Creates and maps a new segment file of {@code size} bytes.
+     */
+    static JournalSegment create(Path file, long baseSequence, int size) throws IOException {
+        return create(file, baseSequence, false, 0, size);
+    }
+
+    /**
+     * Creates a segment for the snapshots of the events from {@code baseSequence} through
+     * {@code foldedThrough}. The range is kept in the header, so any leftover segment inside
+     * it is known to be folded already, even when the last events folded were deletes and
+     * left no snapshot.
+     */
+    static JournalSegment createCompacted(Path file, long baseSequence, long foldedThrough, int size)
+            throws IOException {
+        return create(file, baseSequence, true, foldedThrough, size);
+    }
+
+    private static JournalSegment create(Path file, long baseSequence, boolean compacted, long foldedThrough,
+                                         int size) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC)
+                .putShort(4, FORMAT_VERSION)
+                .putShort(6, compacted ? COMPACTED : 0)
+                .putLong(8, baseSequence)
+                .putLong(16, foldedThrough);
+        buffer.force(0, HEADER_SIZE);
+        return new JournalSegment(file, baseSequence, compacted, foldedThrough, buffer);
+    }
+
+    /**
+     * Maps an existing segment file and finds its end: the first record that is missing,
+     * cut short or fails its checksum. Anything after that point is flagged {@link #isTorn()}.
+     */
+    static JournalSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a quote journal segment");
+        }
+        if (buffer.getShort(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported journal format version " + buffer.getShort(4));
+        }
+
+        JournalSegment segment = new JournalSegment(file, buffer.getLong(8), buffer.getShort(6) == COMPACTED,
+                buffer.getLong(16), buffer);
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            int body = position + RECORD_HEADER_SIZE;
+            if (length < 0 || length > buffer.capacity() - body
+                    || !QuoteEventCodec.intact(buffer, body, length, buffer.getInt(position + 4))) {
+                segment.torn = true;
+                break;
+            }
+            segment.index(QuoteEventCodec.quoteId(buffer, body), position);
+            segment.lastSequence = buffer.getLong(body + QuoteEventCodec.SEQUENCE_OFFSET);
+            segment.lastRecordedAt = Instant.EPOCH.plus(
+                    buffer.getLong(body + QuoteEventCodec.RECORDED_AT_OFFSET), ChronoUnit.MICROS);
+            position = body + length;
+        }
+        segment.end = position;
+        segment.forced.set(position);
+        return segment;
+    }
+
+    /**
+     * Copies {@code record} in after the last one. Returns false, writing nothing, when it
+     * does not fit.
+     */
+    boolean append(ByteBuffer record, long sequence, Instant recordedAt) {
+        int length = record.remaining();
+        int position = end;
+        if (length > buffer.capacity() - position) {
+            return false;
+        }
+        buffer.put(position, record, record.position(), length);
+        index(QuoteEventCodec.quoteId(buffer, position + RECORD_HEADER_SIZE), position);
+        lastSequence = sequence;
+        lastRecordedAt = recordedAt;
+        end = position + length;
+        return true;
+    }
+
+    /**
+     * Passes each record from {@code fromSequence} on to {@code consumer}.
+     */
+    void read(long fromSequence, Consumer<QuoteEvent> consumer) {
+        int limit = end;
+        int position = HEADER_SIZE;
+        while (position < limit) {
+            position = readAt(position, fromSequence, consumer);
+        }
+    }
+
+    /**
+     * Passes the records of {@code quoteId} to {@code consumer}, found through the offset index.
+     */
+    void read(UUID quoteId, Consumer<QuoteEvent> consumer) {
+        int limit = end;
+        int[] positions = offsets.get(quoteId);
+        if (positions != null) {
+            for (int position : positions) {
+                // Indexed just before end is published, so the newest may not be readable yet
+                if (position < limit) {
+                    readAt(position, 0, consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * The newest readable record of {@code quoteId}, or null if this segment has none.
+     */
+    QuoteEvent last(UUID quoteId) {
+        int limit = end;
+        int[] positions = offsets.get(quoteId);
+        if (positions != null) {
+            for (int i = positions.length - 1; i >= 0; i--) {
+                int position = positions[i];
+                if (position < limit) {
+                    return QuoteEventCodec.decode(buffer, position + RECORD_HEADER_SIZE, buffer.getInt(position));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The quotes with at least one record in this segment.
+     */
+    Set<UUID> quoteIds() {
+        return offsets.keySet();
+    }
+
+    private int readAt(int position, long fromSequence, Consumer<QuoteEvent> consumer) {
+        int length = buffer.getInt(position);
+        int body = position + RECORD_HEADER_SIZE;
+        if (buffer.getLong(body + QuoteEventCodec.SEQUENCE_OFFSET) >= fromSequence) {
+            consumer.accept(QuoteEventCodec.decode(buffer, body, length));
+        }
+        return body + length;
+    }
+
+    private void index(UUID quoteId, int position) {
+        offsets.merge(quoteId, new int[] {position}, (existing, added) -> {
+            int[] merged = Arrays.copyOf(existing, existing.length + 1);
+            merged[existing.length] = position;
+            return merged;
+        });
+    }
+
+    /**
+     * Writes everything appended so far through to the file.
+     */
+    void force() {
+        int upTo = end;
+        int from = forced.get();
+        if (upTo > from) {
+            buffer.force(from, upTo - from);
+            forced.accumulateAndGet(upTo, Math::max);
+        }
+    }
+
+    boolean isForced() {
+        return forced.get() >= end;
+    }
+
+    /**
+     * Zeroes the unreadable bytes after the end, so later appends are not followed by them.
+     */
+    void clearTail() {
+        for (int position = end; position < buffer.capacity(); position++) {
+            // Only write where needed; the untouched rest of a preallocated file stays sparse
+            if (buffer.get(position) != 0) {
+                buffer.put(position, (byte) 0);
+            }
+        }
+        buffer.force(end, buffer.capacity() - end);
+        torn = false;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * The last sequence this segment accounts for: its last event, or for a compacted
+     * segment the last one folded into it, whichever is later.
+     */
+    long getCoveredSequence() {
+        return compacted ? Math.max(foldedThrough, lastSequence) : lastSequence;
+    }
+
+    Instant getLastRecordedAt() {
+        return lastRecordedAt;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < baseSequence;
+    }
+
+    boolean isCompacted() {
+        return compacted;
+    }
+
+    boolean isTorn() {
+        return torn;
+    }
+}
@@ -0,0 +1,62 @@
+
+package com.insurance.quotemanager.journal;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the {@link QuoteJournal}: a quote lifecycle change and the quote's state
+ * after it.
+ * <p>
+ * {@code sequence}, {@code recordedAt} and {@code actorId} (the user whose request made
+ * the change, if known) are assigned by the journal. A delete carries the quote's last
+ * state; updates and status changes also carry the status they moved from.
+ */
+public record QuoteEvent(long sequence,
+                         Instant recordedAt,
+                         QuoteEventType type,
+                         UUID quoteId,
+                         UUID brokerId,
+                         UUID actorId,
+                         String status,
+                         String previousStatus,
+                         String insuranceType,
+                         BigDecimal premium,
+                         BigDecimal sumInsured,
+                         String fullName,
+                         String email,
+                         String residentialAddress) {
+
+    /**
+     * An event yet to be journaled.
+     */
+    public static QuoteEvent of(QuoteEventType type, UUID quoteId, UUID brokerId, String status,
+                                String previousStatus, String insuranceType, BigDecimal premium,
+                                BigDecimal sumInsured, String fullName, String email, String residentialAddress) {
+        return new QuoteEvent(0, null, type, quoteId, brokerId, null, status, previousStatus, insuranceType,
+                premium, sumInsured, fullName, email, residentialAddress);
+    }
+
+    QuoteEvent stamped(long sequence, Instant recordedAt, UUID actorId) {
+        return new QuoteEvent(sequence, recordedAt, type, quoteId, brokerId, actorId, status, previousStatus,
+                insuranceType, premium, sumInsured, fullName, email, residentialAddress);
+    }
+
+    /**
+     * This quote's state with {@code next} applied, as a {@link QuoteEventType#SNAPSHOT}
+     * stamped like {@code next}. Every state field is non-null on a quote, so a null in
+     * {@code next} means the change did not carry it and this event's value still holds.
+     */
+    QuoteEvent fold(QuoteEvent next) {
+        return new QuoteEvent(next.sequence(), next.recordedAt(), QuoteEventType.SNAPSHOT, quoteId,
+                latest(next.brokerId(), brokerId), next.actorId(), latest(next.status(), status), null,
+                latest(next.insuranceType(), insuranceType), latest(next.premium(), premium),
+                latest(next.sumInsured(), sumInsured), latest(next.fullName(), fullName),
+                latest(next.email(), email), latest(next.residentialAddress(), residentialAddress));
+    }
+
+    private static <T> T latest(T next, T previous) {
+        return next != null ? next : previous;
+    }
+}
@@ -0,0 +1,159 @@
+
+package com.insurance.quotemanager.journal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary form of a journaled {@link QuoteEvent}.
+ * <p>
+ * A record is {@code [int body length][int CRC32C of body][body]}. The body is the
+ * sequence, the time in epoch microseconds, the type code, a byte flagging which optional
+ * fixed-size fields follow, the quote id, then the broker id, actor id, premium and sum
+ * insured (amounts as longs in cents) when present, and finally the status, previous
+ * status, insurance type, name, email and address, each as a short UTF-8 byte count
+ * ({@code -1} for null) and the bytes.
+ */
+final class QuoteEventCodec {
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    // Body offsets of the fields read without decoding the whole record
+    static final int SEQUENCE_OFFSET = 0;
+    static final int RECORDED_AT_OFFSET = 8;
+    static final int QUOTE_ID_OFFSET = 18;
+
+    private static final int FIXED_BODY_SIZE = 34;
+
+    private static final int HAS_BROKER_ID = 1;
+    private static final int HAS_ACTOR_ID = 2;
+    private static final int HAS_PREMIUM = 4;
+    private static final int HAS_SUM_INSURED = 8;
+
+    private QuoteEventCodec() {
+    }
+
+    /**
+     * The complete record for {@code event}, ready to be read from position zero. Encoded
+     * into {@code scratch} when it is large enough, otherwise into a new buffer.
+     */
+    static ByteBuffer encode(QuoteEvent event, ByteBuffer scratch) {
+        byte[][] strings = {
+                utf8(event.status()), utf8(event.previousStatus()), utf8(event.insuranceType()),
+                utf8(event.fullName()), utf8(event.email()), utf8(event.residentialAddress())
+        };
+        int flags = (event.brokerId() != null ? HAS_BROKER_ID : 0)
+                | (event.actorId() != null ? HAS_ACTOR_ID : 0)
+                | (event.premium() != null ? HAS_PREMIUM : 0)
+                | (event.sumInsured() != null ? HAS_SUM_INSURED : 0);
+
+        int size = RECORD_HEADER_SIZE + FIXED_BODY_SIZE
+                + (event.brokerId() != null ? 16 : 0) + (event.actorId() != null ? 16 : 0)
+                + (event.premium() != null ? 8 : 0) + (event.sumInsured() != null ? 8 : 0);
+        for (byte[] string : strings) {
+            size += 2 + (string != null ? string.length : 0);
+        }
+
+        ByteBuffer record = scratch.capacity() >= size ? scratch.clear() : ByteBuffer.allocate(size);
+        record.position(RECORD_HEADER_SIZE);
+        record.putLong(event.sequence())
+                .putLong(ChronoUnit.MICROS.between(Instant.EPOCH, event.recordedAt()))
+                .put(event.type().getCode())
+                .put((byte) flags);
+        putUuid(record, event.quoteId());
+        if (event.brokerId() != null) {
+            putUuid(record, event.brokerId());
+        }
+        if (event.actorId() != null) {
+            putUuid(record, event.actorId());
+        }
+        if (event.premium() != null) {
+            record.putLong(cents(event.premium()));
+        }
+        if (event.sumInsured() != null) {
+            record.putLong(cents(event.sumInsured()));
+        }
+        for (byte[] string : strings) {
+            if (string == null) {
+                record.putShort((short) -1);
+            } else {
+                record.putShort((short) string.length).put(string);
+            }
+        }
+
+        int bodyLength = record.position() - RECORD_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER_SIZE, bodyLength);
+        record.putInt(0, bodyLength).putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    /**
+     * Whether {@code length} bytes of body at {@code bodyPosition} match {@code checksum}.
+     */
+    static boolean intact(ByteBuffer buffer, int bodyPosition, int length, int checksum) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(bodyPosition, length));
+        return (int) crc.getValue() == checksum;
+    }
+
+    static QuoteEvent decode(ByteBuffer buffer, int bodyPosition, int length) {
+        ByteBuffer body = buffer.slice(bodyPosition, length);
+        long sequence = body.getLong();
+        Instant recordedAt = Instant.EPOCH.plus(body.getLong(), ChronoUnit.MICROS);
+        QuoteEventType type = QuoteEventType.fromCode(body.get());
+        int flags = body.get();
+        UUID quoteId = getUuid(body);
+        UUID brokerId = (flags & HAS_BROKER_ID) != 0 ? getUuid(body) : null;
+        UUID actorId = (flags & HAS_ACTOR_ID) != 0 ? getUuid(body) : null;
+        BigDecimal premium = (flags & HAS_PREMIUM) != 0 ? BigDecimal.valueOf(body.getLong(), 2) : null;
+        BigDecimal sumInsured = (flags & HAS_SUM_INSURED) != 0 ? BigDecimal.valueOf(body.getLong(), 2) : null;
+        return new QuoteEvent(sequence, recordedAt, type, quoteId, brokerId, actorId,
+                getString(body), getString(body), getString(body), premium, sumInsured,
+                getString(body), getString(body), getString(body));
+    }
+
+    static UUID quoteId(ByteBuffer buffer, int bodyPosition) {
+        return new UUID(buffer.getLong(bodyPosition + QUOTE_ID_OFFSET),
+                buffer.getLong(bodyPosition + QUOTE_ID_OFFSET + 8));
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Quote event field is too long to journal: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer body) {
+        short length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID value) {
+        buffer.putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
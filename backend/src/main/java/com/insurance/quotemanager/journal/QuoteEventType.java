@@ -0,0 +1,36 @@
+
+package com.insurance.quotemanager.journal;
+
+/**
+ * What happened to a quote. Each type is stored as its one-byte {@link #getCode() code},
+ * so codes must never be reused or renumbered.
+ */
+public enum QuoteEventType {
+    CREATED(1),
+    UPDATED(2),
+    STATUS_CHANGED(3),
+    DELETED(4),
+    // The folded state of a quote's compacted history
+    SNAPSHOT(5),
+    // A quote's database state that the journal had missed, recorded at startup
+    RECONCILED(6);
+
+    private final byte code;
+
+    QuoteEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    static QuoteEventType fromCode(byte code) {
+        for (QuoteEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown quote event type code: " + code);
+    }
+}
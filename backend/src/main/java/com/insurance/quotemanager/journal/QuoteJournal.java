@@ -0,0 +1,531 @@
+
+package com.insurance.quotemanager.journal;
+
+import com.insurance.quotemanager.cache.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit trail of quote lifecycle changes, kept outside the database in
+ * memory-mapped segment files under {@code quote-journal.directory}.
+ * <p>
+ * {@code QuoteService} and the importer report each change, journaled once its
+ * transaction commits. Appending copies the encoded {@link QuoteEvent} into the mapped
+ * active segment; with {@code quote-journal.sync} on, the caller then waits until the
+ * record is forced to disk. Forcing is left to one dedicated platform thread, which takes
+ * every waiting caller, forces everything appended so far and completes their shared
+ * future (group commit); callers park on the future, so a virtual thread never holds its
+ * carrier through the write-back. With sync off, records are still in the page cache and
+ * survive the process, but not the host.
+ * <p>
+ * A segment that fills up is sealed (and forced in the background), and a new one of
+ * {@code quote-journal.segment-size} takes over. Every {@code quote-journal.compact-interval},
+ * the oldest sealed segments whose events are all older than
+ * {@code quote-journal.history-retention} are folded into one compacted segment holding a
+ * {@link QuoteEventType#SNAPSHOT} per quote still live, so old history is dropped but a
+ * replay still ends with every quote's last state.
+ * <p>
+ * {@link #replay} and {@link #history} read the segments back, for rebuilding derived
+ * state after a restart and for answering what happened to a quote; {@link #latest} reads
+ * just a quote's last event.
+ * <p>
+ * Because events are appended after the commit, a crash between the two loses them. The
+ * database is the source of truth, so {@link QuoteJournalRecovery} closes that gap at
+ * startup by journaling whatever the database holds that the journal does not.
+ */
+@Component
+public class QuoteJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".qjl";
+    private static final String COMPACTING_SUFFIX = ".qjl.compacting";
+
+    // Set by JwtAuthenticationFilter on requests with a valid token
+    private static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final Duration historyRetention;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private JournalSegment active;
+    private long nextSequence;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    // Oldest first, ending with the active segment; replaced, never modified
+    private volatile List<JournalSegment> segments = List.of();
+    private volatile long writtenSequence;
+
+    // Callers wait on nextFlush; the flusher thread swaps it out and completes it
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushWanted = flushLock.newCondition();
+    private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+    private boolean flushRequested;
+    private boolean closing;
+    private volatile long durableSequence;
+    private Thread flusher;
+
+    private final ReentrantLock compactLock = new ReentrantLock();
+
+    private final Timer flushTimer;
+    private final DistributionSummary flushBatch;
+    private final Counter failures;
+
+    @Autowired
+    public QuoteJournal(@Value("${quote-journal.directory:data/quote-journal}") Path directory,
+                        @Value("${quote-journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${quote-journal.sync:true}") boolean sync,
+                        @Value("${quote-journal.history-retention:2557d}") Duration historyRetention,
+                        MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.sync = sync;
+        this.historyRetention = historyRetention;
+
+        this.flushTimer = Timer.builder("quote.journal.flush")
+                .description("Time to force appended quote events to disk")
+                .register(meterRegistry);
+        this.flushBatch = DistributionSummary.builder("quote.journal.flush.events")
+                .description("Quote events made durable by one flush")
+                .register(meterRegistry);
+        this.failures = Counter.builder("quote.journal.failures")
+                .description("Committed quote changes that could not be journaled")
+                .register(meterRegistry);
+        Gauge.builder("quote.journal.segments", this, journal -> journal.segments.size())
+                .description("Quote journal segment files")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+
+        List<JournalSegment> opened = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(COMPACTING_SUFFIX)) {
+                log.warn("Removing {} left by an interrupted compaction", file);
+                Files.delete(file);
+                continue;
+            }
+            if (!name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+            JournalSegment segment = JournalSegment.open(file);
+            JournalSegment previous = opened.isEmpty() ? null : opened.get(opened.size() - 1);
+            if (previous != null && segment.getBaseSequence() <= previous.getCoveredSequence()) {
+                // Inside the range of the compacted segment before it, so already folded into it
+                log.warn("Removing {} left by an interrupted compaction", file);
+                Files.delete(file);
+                continue;
+            }
+            opened.add(segment);
+        }
+
+        for (int i = 0; i < opened.size(); i++) {
+            JournalSegment segment = opened.get(i);
+            if (!segment.isTorn()) {
+                continue;
+            }
+            if (i == opened.size() - 1) {
+                // A write cut off by a crash; the events before it are intact
+                log.warn("Quote journal {} ends in a partial record after sequence {}; discarding it",
+                        segment.getFile(), segment.getLastSequence());
+                segment.clearTail();
+            } else {
+                log.error("Quote journal {} is damaged after sequence {}; later events in it are unreadable",
+                        segment.getFile(), segment.getLastSequence());
+            }
+        }
+
+        if (opened.isEmpty()) {
+            opened.add(JournalSegment.create(segmentFile(1), 1, segmentSize));
+        }
+        appendLock.lock();
+        try {
+            active = opened.get(opened.size() - 1);
+            nextSequence = active.getCoveredSequence() + 1;
+            writtenSequence = nextSequence - 1;
+            segments = List.copyOf(opened);
+        } finally {
+            appendLock.unlock();
+        }
+        durableSequence = writtenSequence;
+        flusher = new Thread(this::flushLoop, "quote-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Quote journal opened at {}: {} segments, last sequence {}", directory, opened.size(),
+                writtenSequence);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        flushLock.lock();
+        try {
+            closing = true;
+            flushWanted.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        flusher.join();
+
+        appendLock.lock();
+        try {
+            forceUnforced();
+        } finally {
+            appendLock.unlock();
+        }
+        flushLock.lock();
+        try {
+            nextFlush.complete(null);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void record(QuoteEvent event) {
+        recordAll(List.of(event));
+    }
+
+    /**
+     * Journals {@code events} once the surrounding transaction commits, by the user of the
+     * current request. A failure is logged and counted rather than thrown, since the change
+     * itself has already committed.
+     */
+    public void recordAll(Collection<QuoteEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        UUID actorId = currentUserId();
+        AfterCommit.run(() -> append(events, actorId));
+    }
+
+    /**
+     * Journals {@code events} right away, outside any transaction and with no actor.
+     */
+    void recordNow(Collection<QuoteEvent> events) {
+        if (!events.isEmpty()) {
+            append(events, null);
+        }
+    }
+
+    /**
+     * Passes every event from {@code fromSequence} on to {@code consumer}, oldest first, and
+     * returns the sequence of the last one. Compacted history arrives as one snapshot per
+     * quote, so replaying from the start ends with each quote's latest journaled state.
+     */
+    public long replay(long fromSequence, Consumer<QuoteEvent> consumer) {
+        long[] last = {fromSequence - 1};
+        for (JournalSegment segment : segments) {
+            if (segment.getLastSequence() >= fromSequence) {
+                segment.read(fromSequence, event -> {
+                    last[0] = event.sequence();
+                    consumer.accept(event);
+                });
+            }
+        }
+        return last[0];
+    }
+
+    /**
+     * Every journaled event of one quote, oldest first, read through each segment's
+     * per-quote offset index rather than a scan.
+     */
+    public List<QuoteEvent> history(UUID quoteId) {
+        List<QuoteEvent> events = new ArrayList<>();
+        for (JournalSegment segment : segments) {
+            segment.read(quoteId, events::add);
+        }
+        return events;
+    }
+
+    /**
+     * The latest journaled event of one quote, or null if it was never journaled. Reads one
+     * record through the offset index of the newest segment that has any.
+     */
+    public QuoteEvent latest(UUID quoteId) {
+        List<JournalSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            QuoteEvent event = current.get(i).last(quoteId);
+            if (event != null) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every quote with at least one journaled event, including deleted ones.
+     */
+    public Set<UUID> quoteIds() {
+        Set<UUID> quoteIds = new HashSet<>();
+        for (JournalSegment segment : segments) {
+            quoteIds.addAll(segment.quoteIds());
+        }
+        return quoteIds;
+    }
+
+    public long getLastSequence() {
+        return writtenSequence;
+    }
+
+    /**
+     * Folds the sealed segments older than the history retention into one compacted
+     * segment. Returns the number of segments folded.
+     */
+    @Scheduled(fixedDelayString = "${quote-journal.compact-interval:PT6H}",
+            initialDelayString = "${quote-journal.compact-interval:PT6H}")
+    public int compact() throws IOException {
+        compactLock.lock();
+        try {
+            return compactExpired();
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    private int compactExpired() throws IOException {
+        Instant horizon = Instant.now().minus(historyRetention);
+        List<JournalSegment> current = segments;
+        List<JournalSegment> expired = new ArrayList<>();
+        // The last segment is the active one
+        for (JournalSegment segment : current.subList(0, current.size() - 1)) {
+            if (!segment.isEmpty() && !segment.getLastRecordedAt().isBefore(horizon)) {
+                break;
+            }
+            expired.add(segment);
+        }
+        if (expired.isEmpty() || (expired.size() == 1 && expired.get(0).isCompacted())) {
+            return 0;
+        }
+
+        Map<UUID, QuoteEvent> states = new HashMap<>();
+        long[] folded = {0};
+        for (JournalSegment segment : expired) {
+            segment.read(0, event -> {
+                folded[0]++;
+                if (event.type() == QuoteEventType.DELETED) {
+                    states.remove(event.quoteId());
+                } else {
+                    states.merge(event.quoteId(), event.fold(event), (state, ignored) -> state.fold(event));
+                }
+            });
+        }
+
+        List<QuoteEvent> snapshots = states.values().stream()
+                .sorted(Comparator.comparingLong(QuoteEvent::sequence))
+                .toList();
+        List<ByteBuffer> records = new ArrayList<>(snapshots.size());
+        int size = JournalSegment.HEADER_SIZE;
+        for (QuoteEvent snapshot : snapshots) {
+            ByteBuffer record = QuoteEventCodec.encode(snapshot, ByteBuffer.allocate(0));
+            records.add(record);
+            size += record.remaining();
+        }
+
+        // Written aside and moved over the first expired segment, so a crash leaves either
+        // the old segments or the compacted one (plus leftovers in its range, which open() removes)
+        JournalSegment first = expired.get(0);
+        long foldedThrough = expired.get(expired.size() - 1).getCoveredSequence();
+        Path compacting = directory.resolve(String.format("%020d%s", first.getBaseSequence(), COMPACTING_SUFFIX));
+        JournalSegment compacted = JournalSegment.createCompacted(compacting, first.getBaseSequence(),
+                foldedThrough, size);
+        for (int i = 0; i < snapshots.size(); i++) {
+            compacted.append(records.get(i), snapshots.get(i).sequence(), snapshots.get(i).recordedAt());
+        }
+        compacted.force();
+        Files.move(compacting, first.getFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (JournalSegment segment : expired.subList(1, expired.size())) {
+            Files.delete(segment.getFile());
+        }
+        compacted = JournalSegment.open(first.getFile());
+
+        appendLock.lock();
+        try {
+            // Only compaction removes segments, so the expired ones are still the oldest
+            List<JournalSegment> updated = new ArrayList<>();
+            updated.add(compacted);
+            updated.addAll(segments.subList(expired.size(), segments.size()));
+            segments = List.copyOf(updated);
+        } finally {
+            appendLock.unlock();
+        }
+        log.info("Quote journal compacted: {} events in {} segments folded into {} snapshots",
+                folded[0], expired.size(), records.size());
+        return expired.size();
+    }
+
+    private void append(Collection<QuoteEvent> events, UUID actorId) {
+        long last;
+        try {
+            appendLock.lock();
+            try {
+                Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+                for (QuoteEvent event : events) {
+                    ByteBuffer record = QuoteEventCodec.encode(event.stamped(nextSequence, now, actorId), scratch);
+                    if (record.capacity() > scratch.capacity()) {
+                        scratch = record;
+                    }
+                    if (!active.append(record, nextSequence, now)) {
+                        roll();
+                        if (!active.append(record, nextSequence, now)) {
+                            throw new IllegalStateException("Quote event of " + record.remaining()
+                                    + " bytes does not fit in a journal segment");
+                        }
+                    }
+                    writtenSequence = nextSequence++;
+                }
+                last = writtenSequence;
+            } finally {
+                appendLock.unlock();
+            }
+            if (sync) {
+                awaitDurable(last);
+            }
+        } catch (IOException | RuntimeException ex) {
+            failures.increment();
+            log.error("Could not journal {} quote events", events.size(), ex);
+        } catch (ExecutionException ex) {
+            failures.increment();
+            log.error("Could not force {} quote events to disk", events.size(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Called with the append lock held; the sealed segment is forced by the flusher
+    private void roll() throws IOException {
+        JournalSegment next = JournalSegment.create(segmentFile(nextSequence), nextSequence, segmentSize);
+        List<JournalSegment> updated = new ArrayList<>(segments);
+        updated.add(next);
+        segments = List.copyOf(updated);
+        active = next;
+        flushLock.lock();
+        try {
+            flushRequested = true;
+            flushWanted.signal();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Group commit: wait for the flush that starts after this call, or return if one already covered it
+    private void awaitDurable(long sequence) throws InterruptedException, ExecutionException {
+        CompletableFuture<Void> flush;
+        flushLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            flush = nextFlush;
+            flushRequested = true;
+            flushWanted.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        flush.get();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            CompletableFuture<Void> flush;
+            flushLock.lock();
+            try {
+                while (!flushRequested && !closing) {
+                    flushWanted.awaitUninterruptibly();
+                }
+                if (!flushRequested) {
+                    return;
+                }
+                flushRequested = false;
+                flush = nextFlush;
+                nextFlush = new CompletableFuture<>();
+            } finally {
+                flushLock.unlock();
+            }
+
+            // Read after taking the waiters, so it covers every event they appended
+            long flushed = writtenSequence;
+            long started = System.nanoTime();
+            try {
+                forceUnforced();
+            } catch (RuntimeException ex) {
+                flush.completeExceptionally(ex);
+                continue;
+            }
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            flushBatch.record(flushed - durableSequence);
+            durableSequence = flushed;
+            flush.complete(null);
+        }
+    }
+
+    // Newest first: the active segment, then any sealed since the last flush
+    private void forceUnforced() {
+        List<JournalSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            JournalSegment segment = current.get(i);
+            if (segment.isForced() && i < current.size() - 1) {
+                break;
+            }
+            segment.force();
+        }
+    }
+
+    private Path segmentFile(long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private static UUID currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object userId = attributes != null
+                ? attributes.getAttribute(USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        return userId instanceof UUID id ? id : null;
+    }
+}
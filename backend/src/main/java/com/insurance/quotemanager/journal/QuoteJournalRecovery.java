@@ -0,0 +1,139 @@
+
+package com.insurance.quotemanager.journal;
+
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteState;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Brings the {@link QuoteJournal} level with the database at startup.
+ * <p>
+ * Changes are journaled after their transaction commits, so one committed just before a
+ * crash can be missing, and quotes written before the journal existed, or by another
+ * instance, are not in it at all. Before requests are served, every quote row is streamed
+ * in id order and compared field by field with the quote's latest journaled event, read
+ * through the journal's offset index rather than a replay. A quote whose row differs, or
+ * that the journal has never seen, gets a {@link QuoteEventType#RECONCILED} event with its
+ * current state. A quote the journal still holds but the database no longer does gets a
+ * {@link QuoteEventType#DELETED} event with no state. Turned off with
+ * {@code quote-journal.reconcile-on-startup=false}.
+ */
+@Component
+public class QuoteJournalRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteJournalRecovery.class);
+
+    // Events journaled per append, bounding what is held in memory
+    private static final int CHUNK_SIZE = 1000;
+
+    private final QuoteJournal quoteJournal;
+    private final QuoteRepository quoteRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    @Autowired
+    public QuoteJournalRecovery(QuoteJournal quoteJournal, QuoteRepository quoteRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${quote-journal.reconcile-on-startup:true}") boolean enabled) {
+        this.quoteJournal = quoteJournal;
+        this.quoteRepository = quoteRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Journals every difference between the database and the journal. Returns the number
+     * of events written.
+     */
+    @PostConstruct
+    public int reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+        long started = System.nanoTime();
+
+        // Journaled quotes not yet matched to a row
+        Set<UUID> unmatched = quoteJournal.quoteIds();
+        List<QuoteEvent> missed = new ArrayList<>(CHUNK_SIZE);
+        int reconciled = readOnlyTransaction.execute(status -> {
+            int changed = 0;
+            try (Stream<QuoteState> quotes = quoteRepository.streamAllStates()) {
+                Iterator<QuoteState> iterator = quotes.iterator();
+                while (iterator.hasNext()) {
+                    QuoteState quote = iterator.next();
+                    QuoteEvent latest = unmatched.remove(quote.id()) ? quoteJournal.latest(quote.id()) : null;
+                    if (!matches(latest, quote)) {
+                        missed.add(QuoteEvent.of(QuoteEventType.RECONCILED, quote.id(), quote.brokerId(),
+                                quote.status().getValue(), null, quote.insuranceType(), quote.premium(),
+                                quote.sumInsured(), quote.fullName(), quote.email(), quote.residentialAddress()));
+                        changed++;
+                        flushIfFull(missed);
+                    }
+                }
+            }
+            return changed;
+        });
+
+        // Whatever is left and not already deleted was deleted without being journaled
+        int deleted = 0;
+        for (UUID quoteId : unmatched) {
+            if (quoteJournal.latest(quoteId).type() != QuoteEventType.DELETED) {
+                missed.add(QuoteEvent.of(QuoteEventType.DELETED, quoteId, null, null, null, null, null, null,
+                        null, null, null));
+                deleted++;
+                flushIfFull(missed);
+            }
+        }
+        quoteJournal.recordNow(missed);
+
+        int written = reconciled + deleted;
+        if (written > 0) {
+            log.warn("Quote journal reconciled with the database: {} quotes journaled, {} deletes journaled in {} ms",
+                    reconciled, deleted, (System.nanoTime() - started) / 1_000_000);
+        }
+        return written;
+    }
+
+    private void flushIfFull(List<QuoteEvent> events) {
+        if (events.size() == CHUNK_SIZE) {
+            quoteJournal.recordNow(events);
+            events.clear();
+        }
+    }
+
+    // The journal keeps amounts in cents, so both sides are compared at that scale
+    private static boolean matches(QuoteEvent journaled, QuoteState quote) {
+        return journaled != null
+                && journaled.type() != QuoteEventType.DELETED
+                && Objects.equals(journaled.brokerId(), quote.brokerId())
+                && Objects.equals(journaled.status(), quote.status().getValue())
+                && Objects.equals(journaled.insuranceType(), quote.insuranceType())
+                && Objects.equals(cents(journaled.premium()), cents(quote.premium()))
+                && Objects.equals(cents(journaled.sumInsured()), cents(quote.sumInsured()))
+                && Objects.equals(journaled.fullName(), quote.fullName())
+                && Objects.equals(journaled.email(), quote.email())
+                && Objects.equals(journaled.residentialAddress(), quote.residentialAddress());
+    }
+
+    private static BigDecimal cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP) : null;
+    }
+}
@@ -0,0 +1,19 @@
+
+package com.insurance.quotemanager.mapper;
+
+import com.insurance.quotemanager.dto.BrokerDto;
+import com.insurance.quotemanager.model.Broker;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface BrokerMapper {
+    
+    // updatedAt only feeds the broker list's ETag
+    @BeanMapping(ignoreUnmappedSourceProperties = "updatedAt")
+    BrokerDto toDto(Broker broker);
+    
+    @Mapping(target = "updatedAt", ignore = true)
+    Broker toEntity(BrokerDto brokerDto);
+}
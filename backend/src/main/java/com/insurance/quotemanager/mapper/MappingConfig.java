@@ -0,0 +1,17 @@
+
+package com.insurance.quotemanager.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Shared settings for the generated entity/DTO mappers. Any property left unmapped on
+ * either side fails compilation, so adding a field to an entity or DTO without
+ * deciding how it maps breaks the build instead of being silently dropped.
+ */
+@MapperConfig(
+        componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        unmappedSourcePolicy = ReportingPolicy.ERROR)
+public interface MappingConfig {
+}
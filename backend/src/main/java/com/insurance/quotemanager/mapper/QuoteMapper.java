@@ -0,0 +1,30 @@
+
+package com.insurance.quotemanager.mapper;
+
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface QuoteMapper {
+    
+    @Mapping(target = "brokerId", source = "broker.id")
+    QuoteDto toDto(Quote quote);
+    
+    // The broker is resolved from brokerId by the service
+    @BeanMapping(ignoreUnmappedSourceProperties = "brokerId")
+    @Mapping(target = "broker", ignore = true)
+    Quote toEntity(QuoteDto quoteDto);
+    
+    // Statuses travel as their lower-case values, not constant names
+    default QuoteStatus toStatus(String value) {
+        return QuoteStatus.fromValue(value);
+    }
+    
+    default String toValue(QuoteStatus status) {
+        return status != null ? status.getValue() : null;
+    }
+}
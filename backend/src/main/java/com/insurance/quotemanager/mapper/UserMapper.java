@@ -0,0 +1,21 @@
+
+package com.insurance.quotemanager.mapper;
+
+import com.insurance.quotemanager.dto.UserDto;
+import com.insurance.quotemanager.model.User;
+import com.insurance.quotemanager.repository.UserCredentials;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class)
+public interface UserMapper {
+    
+    // The password hash must never reach the DTO
+    @BeanMapping(ignoreUnmappedSourceProperties = {"password", "createdAt", "updatedAt"})
+    @Mapping(target = "brokerId", source = "broker.id")
+    UserDto toDto(User user);
+    
+    @BeanMapping(ignoreUnmappedSourceProperties = "passwordHash")
+    UserDto toDto(UserCredentials credentials);
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -95,16 +96,23 @@ public class Quote {
     @Column(nullable = false)
     private String insuranceType;
     
+    @Convert(converter = QuoteStatusConverter.class)
     @Column(nullable = false)
-    private String status = "draft";
+    private QuoteStatus status = QuoteStatus.DRAFT;
     
     @Column(nullable = false)
     private BigDecimal premium = BigDecimal.ZERO;
     
-    @ManyToOne
+    // Lazy: reads only need the broker id, which the proxy carries without a query
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "broker_id", nullable = false)
     private Broker broker;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
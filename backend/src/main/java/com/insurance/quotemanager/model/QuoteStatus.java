@@ -0,0 +1,106 @@
+
+package com.insurance.quotemanager.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Where a quote is in its lifecycle. Stored as its small integer {@link #getCode() code}
+ * (see {@link QuoteStatusConverter}) and exchanged with clients as its lower-case
+ * {@link #getValue() value}, which is also what {@link #toString()} returns.
+ * <p>
+ * A draft is submitted, then approved or rejected; an approved quote is bound to a policy.
+ * Submitted, approved and rejected quotes can go back to draft for changes, and a bound
+ * quote is final. Setting a quote's current status again is always allowed.
+ */
+public enum QuoteStatus {
+    DRAFT(0, "draft"),
+    SUBMITTED(1, "submitted"),
+    APPROVED(2, "approved"),
+    REJECTED(3, "rejected"),
+    BOUND(4, "bound");
+
+    private static final Map<QuoteStatus, Set<QuoteStatus>> NEXT = new EnumMap<>(QuoteStatus.class);
+    private static final Map<QuoteStatus, Set<QuoteStatus>> PREVIOUS = new EnumMap<>(QuoteStatus.class);
+
+    static {
+        NEXT.put(DRAFT, EnumSet.of(DRAFT, SUBMITTED));
+        NEXT.put(SUBMITTED, EnumSet.of(SUBMITTED, DRAFT, APPROVED, REJECTED));
+        NEXT.put(APPROVED, EnumSet.of(APPROVED, DRAFT, REJECTED, BOUND));
+        NEXT.put(REJECTED, EnumSet.of(REJECTED, DRAFT));
+        NEXT.put(BOUND, EnumSet.of(BOUND));
+        for (QuoteStatus status : values()) {
+            PREVIOUS.put(status, EnumSet.noneOf(QuoteStatus.class));
+        }
+        NEXT.forEach((from, targets) -> targets.forEach(to -> PREVIOUS.get(to).add(from)));
+        NEXT.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+        PREVIOUS.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+    }
+
+    private final short code;
+    private final String value;
+
+    QuoteStatus(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public boolean canMoveTo(QuoteStatus next) {
+        return NEXT.get(this).contains(next);
+    }
+
+    /**
+     * The statuses a quote can move to this one from, this one included.
+     */
+    public Set<QuoteStatus> reachableFrom() {
+        return PREVIOUS.get(this);
+    }
+
+    /**
+     * The status with the given client-facing value; null for null.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static QuoteStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (QuoteStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown quote status: " + value + " (expected one of "
+                + Arrays.stream(values()).map(QuoteStatus::getValue).collect(Collectors.joining(", ")) + ")");
+    }
+
+    public static QuoteStatus fromCode(short code) {
+        for (QuoteStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown quote status code: " + code);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,23 @@
+
+package com.insurance.quotemanager.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link QuoteStatus} as its {@code smallint} code, which stays stable when
+ * constants are renamed or reordered.
+ */
+@Converter
+public class QuoteStatusConverter implements AttributeConverter<QuoteStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(QuoteStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public QuoteStatus convertToEntityAttribute(Short code) {
+        return code != null ? QuoteStatus.fromCode(code) : null;
+    }
+}
@@ -1,6 +1,7 @@
 
 package com.insurance.quotemanager.model;
 
+import com.insurance.quotemanager.cache.UserCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,7 +18,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserCacheListener.class})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -0,0 +1,10 @@
+
+package com.insurance.quotemanager.rating;
+
+/**
+ * Rated premium and the factors it was built from, as computed against one
+ * {@link RatingTables} instance.
+ */
+public record PremiumEstimate(RatingTables tables, double basePremium, double seasonalFactor,
+                              double ageFactor, double regionalFactor, double premium) {
+}
@@ -0,0 +1,180 @@
+
+package com.insurance.quotemanager.rating;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded memo of premium estimates keyed by the rating-relevant inputs only: property
+ * type, region, rating month, building age and coverage amount, packed into a compact
+ * {@link Key}. Quotes that differ in any other field share an entry.
+ * <p>
+ * The key also carries the {@link RatingTables} instance the estimate was rated against,
+ * so a lookup against newly loaded tables is a plain miss (and counted as one) rather
+ * than a stale hit that is then recomputed. The first lookup against new tables drops
+ * the entries rated against the old ones. Hit ratio and an estimate of the compute time
+ * saved (hits times the mean miss cost) are published as metrics.
+ * <p>
+ * Lookups go through a key reused by the calling thread and a {@link Rater} that is
+ * passed the inputs rather than capturing them, so a hit allocates nothing. Only a miss
+ * creates a key of its own for the new entry.
+ */
+@Component
+public class PremiumEstimateCache implements MeterBinder {
+
+    public static final long DEFAULT_MAX_SIZE = 100_000;
+
+    /** Age passed for quotes with no construction year; rated neutrally. */
+    public static final int UNKNOWN_AGE = Integer.MIN_VALUE;
+
+    // Age key for UNKNOWN_AGE, outside the clamped age range
+    private static final int UNKNOWN_AGE_KEY = RatingTables.MAX_AGE + 1;
+
+    private final Cache<Key, PremiumEstimate> estimates;
+
+    // Tables the cached entries were rated against; lookups against others clear them
+    private final AtomicReference<RatingTables> tables = new AtomicReference<>();
+
+    // Rewritten by each lookup on its thread; never stored in the cache
+    private final ThreadLocal<Key> lookupKeys = ThreadLocal.withInitial(Key::new);
+
+    private final LongAdder computeNanos = new LongAdder();
+    private final LongAdder computations = new LongAdder();
+
+    public PremiumEstimateCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    @Autowired
+    public PremiumEstimateCache(@Value("${premium.estimate-cache.max-size:100000}") long maxSize) {
+        this.estimates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached estimate for these inputs, rating it with {@code rater} on a miss.
+     * {@code age} is the building age in years, or {@link #UNKNOWN_AGE} when the
+     * construction year is unknown.
+     */
+    public PremiumEstimate get(RatingTables tables, int propertyType, int region, int month, int age,
+                               double coverageAmount, Rater rater) {
+        RatingTables cached = this.tables.get();
+        if (cached != tables && this.tables.compareAndSet(cached, tables)) {
+            // Tables were swapped; entries for the old ones can never be hit again
+            estimates.invalidateAll();
+        }
+        Key lookup = lookupKeys.get().set(tables, propertyType, region, month, age, coverageAmount);
+        PremiumEstimate estimate = estimates.getIfPresent(lookup);
+        if (estimate != null) {
+            return estimate;
+        }
+
+        long started = System.nanoTime();
+        estimate = rater.rate(tables, propertyType, region, month, age, coverageAmount);
+        computeNanos.add(System.nanoTime() - started);
+        computations.increment();
+        // The lookup counted the miss, and putIfAbsent records no statistics. Concurrent
+        // misses rate the same inputs to the same estimate, so the first one stored wins.
+        PremiumEstimate raced = estimates.asMap().putIfAbsent(lookup.copy(), estimate);
+        return raced != null ? raced : estimate;
+    }
+
+    public void invalidateAll() {
+        estimates.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return estimates.stats();
+    }
+
+    /**
+     * Hits multiplied by the mean time a miss spent rating, in nanoseconds.
+     */
+    public double getSavedComputeNanos() {
+        long misses = computations.sum();
+        if (misses == 0) {
+            return 0.0;
+        }
+        return estimates.stats().hitCount() * ((double) computeNanos.sum() / misses);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, estimates, "premiumEstimates");
+        Gauge.builder("premium.estimates.hit.ratio", this, cache -> cache.getStats().hitRate())
+                .description("Share of premium estimates served from the cache")
+                .register(registry);
+        FunctionCounter.builder("premium.estimates.saved.compute", this,
+                        cache -> cache.getSavedComputeNanos() / TimeUnit.SECONDS.toNanos(1))
+                .description("Estimated rating time avoided by cache hits")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Rates an estimate from the inputs it is cached under.
+     */
+    @FunctionalInterface
+    public interface Rater {
+        PremiumEstimate rate(RatingTables tables, int propertyType, int region, int month, int age,
+                             double coverageAmount);
+    }
+
+    /**
+     * Property type, region, month and age packed into one long, plus the exact bits of the
+     * coverage amount so equal amounts with different scales share an entry. Tables compare
+     * by identity, so each loaded table set has its own keys.
+     * <p>
+     * Mutable only so a thread can reuse one instance for lookups; a key stored in the cache
+     * is a {@link #copy()} and never changes.
+     */
+    static final class Key {
+        private RatingTables tables;
+        private long factors;
+        private long coverageBits;
+
+        Key set(RatingTables tables, int propertyType, int region, int month, int age, double coverageAmount) {
+            int ageKey = age == UNKNOWN_AGE ? UNKNOWN_AGE_KEY : Math.max(0, Math.min(age, RatingTables.MAX_AGE));
+            this.tables = tables;
+            this.factors = ((long) propertyType << 40) | ((long) region << 16) | (month << 8) | ageKey;
+            this.coverageBits = Double.doubleToLongBits(coverageAmount + 0.0);
+            return this;
+        }
+
+        Key copy() {
+            Key copy = new Key();
+            copy.tables = tables;
+            copy.factors = factors;
+            copy.coverageBits = coverageBits;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && key.tables == tables && key.factors == factors
+                    && key.coverageBits == coverageBits;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(tables);
+            hash = 31 * hash + Long.hashCode(factors);
+            return 31 * hash + Long.hashCode(coverageBits);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+
+package com.insurance.quotemanager.rating;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Current year and month as seen by the rating engine.
+ * <p>
+ * The values are recomputed only when the local date rolls over, so reading them on
+ * the estimate path does not allocate a {@link LocalDate} per call.
+ */
+public final class RatingCalendar {
+
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    public RatingCalendar() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public RatingCalendar(Clock clock) {
+        this.clock = clock;
+        this.snapshot = snapshotFor(clock);
+    }
+
+    public int currentYear() {
+        return current().year;
+    }
+
+    /**
+     * Current month as a 0-based index.
+     */
+    public int currentMonth() {
+        return current().month;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (clock.millis() >= current.validUntilMillis) {
+            current = snapshotFor(clock);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private static Snapshot snapshotFor(Clock clock) {
+        ZoneId zone = clock.getZone();
+        LocalDate today = LocalDate.now(clock);
+        long nextMidnight = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new Snapshot(today.getYear(), today.getMonthValue() - 1, nextMidnight);
+    }
+
+    private record Snapshot(int year, int month, long validUntilMillis) {
+    }
+}
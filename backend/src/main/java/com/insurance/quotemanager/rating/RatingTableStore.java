@@ -0,0 +1,169 @@
+
+package com.insurance.quotemanager.rating;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the live {@link RatingTables}, loaded from a versioned JSON file.
+ * <p>
+ * A reload reads and compiles the file on the caller's thread (the reload endpoint or
+ * the file watcher, never an estimate request) and publishes the result with a single
+ * reference swap. Calculations read {@link #current()} once and keep using that
+ * immutable snapshot, so they never lock and never see a half-updated table. A file
+ * that fails to parse or validate leaves the live tables in place.
+ * <p>
+ * When {@code rating.tables.location} is a file and {@code rating.tables.watch} is on,
+ * changes to the file are picked up automatically.
+ */
+@Component
+public class RatingTableStore {
+
+    public static final String DEFAULT_LOCATION = "rating/rating-tables.json";
+
+    private static final Logger log = LoggerFactory.getLogger(RatingTableStore.class);
+
+    // Lets an editor finish writing the file before it is read
+    private static final long WATCH_SETTLE_MILLIS = 250;
+
+    private final Resource location;
+    private final boolean watch;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final AtomicReference<Loaded> current = new AtomicReference<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Tables from the bundled default file, without watching; for use outside Spring.
+     */
+    public RatingTableStore() {
+        this(new ClassPathResource(DEFAULT_LOCATION), false);
+    }
+
+    @Autowired
+    public RatingTableStore(@Value("${rating.tables.location:classpath:" + DEFAULT_LOCATION + "}") Resource location,
+                            @Value("${rating.tables.watch:true}") boolean watch) {
+        this.location = location;
+        this.watch = watch;
+        reload();
+    }
+
+    public RatingTables current() {
+        return current.get().tables();
+    }
+
+    public Instant getLoadedAt() {
+        return current.get().loadedAt();
+    }
+
+    /**
+     * Re-reads the tables file and swaps it in. Throws, leaving the live tables unchanged,
+     * when the file cannot be read or is invalid.
+     */
+    public synchronized RatingTables reload() {
+        RatingTables tables;
+        try (InputStream input = location.getInputStream()) {
+            RatingTablesFile file = objectMapper.readValue(input, RatingTablesFile.class);
+            tables = RatingTables.compile(file.version(), file.baseRates(), file.seasonalAdjustments(),
+                    file.regionalFactors());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read rating tables from " + location, ex);
+        }
+
+        Loaded previous = current.getAndSet(new Loaded(tables, Instant.now()));
+        log.info("Rating tables version {} loaded from {}{}", tables.getVersion(), location,
+                previous != null ? " (replaced " + previous.tables().getVersion() + ")" : "");
+        return tables;
+    }
+
+    @PostConstruct
+    public void startWatching() throws IOException {
+        if (!watch || !location.isFile()) {
+            return;
+        }
+        Path file = location.getFile().toPath().toAbsolutePath();
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watcher = new Thread(() -> watch(file), "rating-tables-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for rating table changes", file);
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Collapse the burst of events a single save produces into one reload
+                Thread.sleep(WATCH_SETTLE_MILLIS);
+                WatchKey burst;
+                while ((burst = watchService.poll()) != null) {
+                    burst.pollEvents();
+                    burst.reset();
+                }
+
+                try {
+                    reload();
+                } catch (RuntimeException ex) {
+                    log.error("Rating tables at {} were not reloaded; keeping version {}",
+                            file, current().getVersion(), ex);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // Shutting down
+        }
+    }
+
+    private record Loaded(RatingTables tables, Instant loadedAt) {
+    }
+
+    private record RatingTablesFile(String version,
+                                    Map<String, Double> baseRates,
+                                    double[] seasonalAdjustments,
+                                    Map<String, Map<String, Double>> regionalFactors) {
+    }
+}
@@ -0,0 +1,302 @@
+
+package com.insurance.quotemanager.rating;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable, compiled form of the premium rating tables.
+ * <p>
+ * Property types and states are resolved to dense integer indexes once, and every
+ * factor is read from a primitive {@code double[]} so the estimate path does no
+ * boxing, hashing or allocation.
+ */
+public final class RatingTables {
+
+    public static final String DEFAULT_REGION = "default";
+
+    static final double DEFAULT_BASE_RATE = 500.0;
+    static final double DEFAULT_REGIONAL_FACTOR = 1.0;
+    static final double COVERAGE_DIVISOR = 200000.0;
+
+    // Age factor plateaus at 1.6 once a property is 210 years old
+    static final int MAX_AGE = 210;
+
+    private static final int STATE_SLOTS = 26 * 26;
+
+    private final String version;
+
+    private final String[] propertyTypes;
+    private final String[] regions;
+
+    // Indexed by property type; the extra trailing slot holds unknown types
+    private final double[] baseRates;
+
+    // Indexed by 0-based month
+    private final double[] seasonalAdjustments;
+
+    // Row-major [region][property type], last row is the default region
+    private final double[] regionalFactors;
+
+    // Two-letter state code -> region row
+    private final int[] stateRegions;
+
+    // Indexed by property age in years, 0..MAX_AGE
+    private final double[] ageFactors;
+
+    private RatingTables(String version, String[] propertyTypes, String[] regions, double[] baseRates,
+                         double[] seasonalAdjustments, double[] regionalFactors, int[] stateRegions) {
+        this.version = version;
+        this.propertyTypes = propertyTypes;
+        this.regions = regions;
+        this.baseRates = baseRates;
+        this.seasonalAdjustments = seasonalAdjustments;
+        this.regionalFactors = regionalFactors;
+        this.stateRegions = stateRegions;
+        this.ageFactors = new double[MAX_AGE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            ageFactors[age] = ageImpact(age);
+        }
+    }
+
+    /**
+     * Compiles rating tables from their map form.
+     *
+     * @param version             label of the table set, reported with the factors
+     * @param baseRates           base premium by property type
+     * @param seasonalAdjustments seasonal factor by 0-based month, exactly 12 entries
+     * @param regionalFactors     factor by state code then property type; must contain {@link #DEFAULT_REGION}
+     */
+    public static RatingTables compile(String version,
+                                       Map<String, Double> baseRates,
+                                       double[] seasonalAdjustments,
+                                       Map<String, Map<String, Double>> regionalFactors) {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Rating tables must have a version");
+        }
+        if (seasonalAdjustments == null || seasonalAdjustments.length != 12) {
+            throw new IllegalArgumentException("Seasonal adjustments must have 12 months, got "
+                    + (seasonalAdjustments == null ? 0 : seasonalAdjustments.length));
+        }
+        if (baseRates == null || regionalFactors == null) {
+            throw new IllegalArgumentException("Rating tables must define base rates and regional factors");
+        }
+        if (!regionalFactors.containsKey(DEFAULT_REGION)) {
+            throw new IllegalArgumentException("Regional factors must define a '" + DEFAULT_REGION + "' region");
+        }
+
+        String[] types = baseRates.keySet().toArray(new String[0]);
+        int columns = types.length + 1;
+
+        double[] rates = new double[columns];
+        for (int t = 0; t < types.length; t++) {
+            Double rate = baseRates.get(types[t]);
+            if (rate == null || !(rate > 0)) {
+                throw new IllegalArgumentException("Base rate must be positive for " + types[t] + ", got " + rate);
+            }
+            rates[t] = rate;
+        }
+        rates[types.length] = DEFAULT_BASE_RATE;
+
+        String[] regionCodes = new String[regionalFactors.size()];
+        int row = 0;
+        for (String region : regionalFactors.keySet()) {
+            if (!DEFAULT_REGION.equals(region)) {
+                regionCodes[row++] = region;
+            }
+        }
+        regionCodes[row] = DEFAULT_REGION;
+        int defaultRow = row;
+
+        double[] regional = new double[regionCodes.length * columns];
+        Arrays.fill(regional, DEFAULT_REGIONAL_FACTOR);
+        for (int r = 0; r < regionCodes.length; r++) {
+            Map<String, Double> factors = regionalFactors.get(regionCodes[r]);
+            if (factors == null) {
+                throw new IllegalArgumentException("Region " + regionCodes[r] + " has no factors");
+            }
+            for (int t = 0; t < types.length; t++) {
+                Double factor = factors.get(types[t]);
+                if (factor != null) {
+                    regional[r * columns + t] = factor;
+                }
+            }
+        }
+
+        int[] stateRegions = new int[STATE_SLOTS];
+        Arrays.fill(stateRegions, defaultRow);
+        for (int r = 0; r < defaultRow; r++) {
+            String code = regionCodes[r];
+            if (code.length() != 2 || stateSlot(code.charAt(0), code.charAt(1)) < 0) {
+                throw new IllegalArgumentException("Region must be a two-letter state code: " + code);
+            }
+            stateRegions[stateSlot(code.charAt(0), code.charAt(1))] = r;
+        }
+
+        return new RatingTables(version, types, regionCodes, rates, seasonalAdjustments.clone(), regional, stateRegions);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Index of the given property type, or the unknown-type slot when it is not rated.
+     */
+    public int propertyTypeIndex(String propertyType) {
+        if (propertyType != null) {
+            for (int t = 0; t < propertyTypes.length; t++) {
+                if (propertyTypes[t].equals(propertyType)) {
+                    return t;
+                }
+            }
+        }
+        return propertyTypes.length;
+    }
+
+    /**
+     * Region row for a two-letter state code, or the default region.
+     */
+    public int regionIndex(String state) {
+        if (state == null || state.length() != 2) {
+            return regions.length - 1;
+        }
+        int slot = stateSlot(state.charAt(0), state.charAt(1));
+        return slot < 0 ? regions.length - 1 : stateRegions[slot];
+    }
+
+    /**
+     * Region row for the state code found in a free-form residential address, such as
+     * {@code "12 Ocean Dr, Miami, FL 33139"}. The last standalone two-letter upper-case
+     * token is taken as the state; addresses without one use the default region.
+     */
+    public int regionIndexForAddress(String address) {
+        if (address == null) {
+            return regions.length - 1;
+        }
+        for (int i = address.length() - 2; i >= 0; i--) {
+            char first = address.charAt(i);
+            char second = address.charAt(i + 1);
+            if (isUpper(first) && isUpper(second)
+                    && (i == 0 || !Character.isLetterOrDigit(address.charAt(i - 1)))
+                    && (i + 2 == address.length() || !Character.isLetterOrDigit(address.charAt(i + 2)))) {
+                return stateRegions[stateSlot(first, second)];
+            }
+        }
+        return regions.length - 1;
+    }
+
+    public double baseRate(int propertyType) {
+        return baseRates[propertyType];
+    }
+
+    /**
+     * Base premium scaled by the coverage amount.
+     */
+    public double basePremium(int propertyType, double coverageAmount) {
+        return baseRates[propertyType] * (1 + (coverageAmount / COVERAGE_DIVISOR));
+    }
+
+    public double seasonalFactor(int month) {
+        return seasonalAdjustments[month];
+    }
+
+    public double regionalFactor(int region, int propertyType) {
+        return regionalFactors[region * (propertyTypes.length + 1) + propertyType];
+    }
+
+    public double ageFactor(int age) {
+        if (age < 0) {
+            return ageFactors[0];
+        }
+        return ageFactors[Math.min(age, MAX_AGE)];
+    }
+
+    /**
+     * Unrounded premium for already-resolved indexes.
+     */
+    public double premium(int propertyType, int region, int month, int age, double coverageAmount) {
+        return basePremium(propertyType, coverageAmount)
+                * seasonalAdjustments[month]
+                * ageFactor(age)
+                * regionalFactor(region, propertyType);
+    }
+
+    /**
+     * Rounded premiums for every (month, age factor, coverage amount) combination, written
+     * to {@code out} row-major with the coverage amount varying fastest. Each point is
+     * multiplied in the same order as a single estimate, so results match it exactly.
+     */
+    public void sweep(int propertyType, int region, int[] months, double[] ageImpacts,
+                      double[] coverageAmounts, double[] out) {
+        double baseRate = baseRates[propertyType];
+        double regionalFactor = regionalFactor(region, propertyType);
+
+        double[] basePremiums = new double[coverageAmounts.length];
+        for (int c = 0; c < coverageAmounts.length; c++) {
+            basePremiums[c] = baseRate * (1 + (coverageAmounts[c] / COVERAGE_DIVISOR));
+        }
+
+        int o = 0;
+        for (int month : months) {
+            double seasonalFactor = seasonalAdjustments[month];
+            for (double ageImpact : ageImpacts) {
+                for (int c = 0; c < basePremiums.length; c++) {
+                    double premium = basePremiums[c] * seasonalFactor * ageImpact * regionalFactor;
+                    out[o + c] = Math.round(premium * 100.0) / 100.0;
+                }
+                o += basePremiums.length;
+            }
+        }
+    }
+
+    public Map<String, Double> baseRatesAsMap() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (int t = 0; t < propertyTypes.length; t++) {
+            rates.put(propertyTypes[t], baseRates[t]);
+        }
+        return rates;
+    }
+
+    public Map<Integer, Double> seasonalAdjustmentsAsMap() {
+        Map<Integer, Double> seasonal = new LinkedHashMap<>();
+        for (int month = 0; month < seasonalAdjustments.length; month++) {
+            seasonal.put(month, seasonalAdjustments[month]);
+        }
+        return seasonal;
+    }
+
+    public Map<String, Map<String, Double>> regionalFactorsAsMap() {
+        Map<String, Map<String, Double>> regional = new LinkedHashMap<>();
+        for (int r = 0; r < regions.length; r++) {
+            Map<String, Double> factors = new LinkedHashMap<>();
+            for (int t = 0; t < propertyTypes.length; t++) {
+                factors.put(propertyTypes[t], regionalFactor(r, t));
+            }
+            regional.put(regions[r], factors);
+        }
+        return regional;
+    }
+
+    private static double ageImpact(int age) {
+        // Exponential aging factor with plateau
+        if (age <= 5) return 0.88;
+        if (age <= 10) return 0.92 + (age - 5) * 0.016;
+        if (age <= 20) return 1.0 + (age - 10) * 0.008;
+        if (age <= 40) return 1.08 + (age - 20) * 0.006;
+        if (age <= 60) return 1.2 + (age - 40) * 0.005;
+        return 1.3 + Math.min((age - 60) * 0.002, 0.3); // Cap at 1.6
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static int stateSlot(char first, char second) {
+        if (!isUpper(first) || !isUpper(second)) {
+            return -1;
+        }
+        return (first - 'A') * 26 + (second - 'A');
+    }
+}
@@ -3,6 +3,7 @@ package com.insurance.quotemanager.repository;
 
 import com.insurance.quotemanager.model.Broker;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +12,8 @@ import java.util.UUID;
 @Repository
 public interface BrokerRepository extends JpaRepository<Broker, UUID> {
     Optional<Broker> findByEmail(String email);
+    
+    @Query("select new com.insurance.quotemanager.repository.BrokerTableVersion(count(b), max(b.updatedAt)) "
+            + "from Broker b")
+    BrokerTableVersion findTableVersion();
 }
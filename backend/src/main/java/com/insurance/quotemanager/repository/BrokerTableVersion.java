@@ -0,0 +1,11 @@
+
+package com.insurance.quotemanager.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest write time of the brokers table. Any insert, update or delete
+ * changes at least one of them, so together they version the whole broker list.
+ */
+public record BrokerTableVersion(long count, LocalDateTime lastUpdatedAt) {
+}
@@ -0,0 +1,11 @@
+
+package com.insurance.quotemanager.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped quote aggregate. {@code converted} counts the quotes in the
+ * group that reached the requested converted status.
+ */
+public record QuoteAggregate(String key, long count, long converted, BigDecimal premium, BigDecimal sumInsured) {
+}
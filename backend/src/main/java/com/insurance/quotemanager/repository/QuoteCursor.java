@@ -0,0 +1,42 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.model.Quote;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a quote listing: the sort value and id of the last quote
+ * returned. Encoded as an opaque URL-safe token together with the sort it belongs to.
+ */
+public record QuoteCursor(QuoteSortField sortField, Sort.Direction direction, Comparable<?> value, UUID id) {
+    
+    private static final String SEPARATOR = "|";
+    
+    public static QuoteCursor after(Quote quote, QuoteSortField sortField, Sort.Direction direction) {
+        return new QuoteCursor(sortField, direction, sortField.valueOf(quote), quote.getId());
+    }
+    
+    public String encode() {
+        String raw = sortField.getProperty() + SEPARATOR + direction + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static QuoteCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            QuoteSortField sortField = QuoteSortField.fromProperty(parts[0]);
+            return new QuoteCursor(sortField, Sort.Direction.fromString(parts[1]), sortField.parse(parts[2]),
+                    UUID.fromString(parts[3]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+}
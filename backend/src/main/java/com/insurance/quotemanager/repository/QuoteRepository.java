@@ -2,15 +2,53 @@
 package com.insurance.quotemanager.repository;
 
 import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface QuoteRepository extends JpaRepository<Quote, UUID> {
-    List<Quote> findByBrokerId(UUID brokerId);
-    List<Quote> findByStatus(String status);
-    List<Quote> findByBrokerIdAndStatus(UUID brokerId, String status);
+public interface QuoteRepository extends JpaRepository<Quote, UUID>, QuoteRepositoryCustom {
+    // Derived from the method name these would join brokers just to compare its id;
+    // q.broker.id reads the foreign key column instead
+    @Query("select q from Quote q where q.broker.id = :brokerId")
+    List<Quote> findByBrokerId(@Param("brokerId") UUID brokerId);
+    List<Quote> findByStatus(QuoteStatus status);
+    @Query("select q from Quote q where q.broker.id = :brokerId and q.status = :status")
+    List<Quote> findByBrokerIdAndStatus(@Param("brokerId") UUID brokerId, @Param("status") QuoteStatus status);
+    
+    @Query("select new com.insurance.quotemanager.repository.QuoteTally("
+            + "q.broker.id, q.status, q.insuranceType, count(q), sum(q.premium), sum(q.sumInsured)) "
+            + "from Quote q group by q.broker.id, q.status, q.insuranceType")
+    List<QuoteTally> tallyByBrokerStatusAndInsuranceType();
+    
+    @Query("select new com.insurance.quotemanager.repository.QuoteState("
+            + "q.id, q.broker.id, q.status, q.insuranceType, q.premium, q.sumInsured, "
+            + "q.fullName, q.email, q.residentialAddress) "
+            + "from Quote q where q.id in :ids")
+    List<QuoteState> findStates(@Param("ids") Collection<UUID> ids);
+    
+    @Query("select new com.insurance.quotemanager.repository.QuoteState("
+            + "q.id, q.broker.id, q.status, q.insuranceType, q.premium, q.sumInsured, "
+            + "q.fullName, q.email, q.residentialAddress) from Quote q order by q.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<QuoteState> streamAllStates();
+    
+    @Query("select new com.insurance.quotemanager.repository.QuoteSearchDocument("
+            + "q.id, q.broker.id, q.fullName, q.email, q.residentialAddress, q.status) from Quote q")
+    List<QuoteSearchDocument> findAllSearchDocuments();
+    
+    @Query("select q.updatedAt from Quote q where q.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
 }
@@ -0,0 +1,71 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface QuoteRepositoryCustom {
+    
+    /**
+     * Returns up to {@code limit} quotes matching every non-null filter in {@code criteria},
+     * ordered by {@code sortField} then id, starting strictly after {@code after} when given.
+     */
+    List<Quote> findPage(QuoteSearchCriteria criteria, QuoteSortField sortField, Sort.Direction direction,
+                         QuoteCursor after, int limit);
+    
+    /**
+     * Same page as {@link #findPage}, but selecting only the given {@code QuoteDto}
+     * properties. Each row maps property name to value in the order given. Scalar properties
+     * come from one query over the quotes table; each requested list property costs one more
+     * query for the whole page, and unrequested lists are not read at all.
+     *
+     * @throws IllegalArgumentException when a property is not a quote field
+     */
+    List<Map<String, Object>> findPage(QuoteSearchCriteria criteria, QuoteSortField sortField,
+                                       Sort.Direction direction, QuoteCursor after, int limit,
+                                       List<String> properties);
+    
+    /**
+     * Streams every quote matching {@code criteria}, oldest first, from a forward-only cursor
+     * that fetches {@code fetchSize} rows per round trip. Entities are loaded read-only; the
+     * caller must close the stream inside a transaction and clear the persistence context as
+     * it goes to keep memory bounded.
+     */
+    Stream<Quote> streamAll(QuoteSearchCriteria criteria, int fetchSize);
+    
+    /**
+     * Counts the quotes matching {@code criteria} and sums their premium and sum insured per
+     * {@code group}, in a single grouped SQL aggregate. Groups are ordered by key.
+     */
+    List<QuoteAggregate> aggregate(QuoteSearchCriteria criteria, QuoteStatsGroup group, QuoteStatus convertedStatus);
+    
+    /**
+     * Moves one quote to {@code newStatus} in a single conditional UPDATE, bumping its version,
+     * if its current status {@link QuoteStatus#canMoveTo can move} there. {@code expectedStatus}
+     * and {@code expectedVersion} are only checked when non-null.
+     *
+     * @return the quote as it was before the move, with its previous status, and its new
+     *         version; empty when the quote is missing or a condition failed
+     */
+    Optional<QuoteStatusChange> updateStatus(UUID id, QuoteStatus newStatus, QuoteStatus expectedStatus, Long expectedVersion,
+                                  LocalDateTime updatedAt);
+    
+    /**
+     * Moves every listed quote whose current status can move to {@code newStatus} in a single
+     * UPDATE, optionally only those currently in {@code expectedStatus}.
+     *
+     * @return the quotes moved, each as it was before the move, with its previous status
+     */
+    List<QuoteState> updateStatus(Collection<UUID> ids, QuoteStatus newStatus, QuoteStatus expectedStatus,
+                                  LocalDateTime updatedAt);
+}
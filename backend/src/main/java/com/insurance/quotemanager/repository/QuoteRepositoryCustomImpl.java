@@ -0,0 +1,340 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class QuoteRepositoryCustomImpl implements QuoteRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Quote> findPage(QuoteSearchCriteria criteria, QuoteSortField sortField, Sort.Direction direction,
+                                QuoteCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Quote> query = cb.createQuery(Quote.class);
+        Root<Quote> quote = query.from(Quote.class);
+
+        query.select(quote);
+        page(cb, query, quote, criteria, sortField, direction, after);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findPage(QuoteSearchCriteria criteria, QuoteSortField sortField,
+                                              Sort.Direction direction, QuoteCursor after, int limit,
+                                              List<String> properties) {
+        EntityType<Quote> entity = entityManager.getMetamodel().entity(Quote.class);
+        List<String> columns = new ArrayList<>();
+        List<String> lists = new ArrayList<>();
+        for (String property : properties) {
+            (attribute(entity, property).isCollection() ? lists : columns).add(property);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Quote> quote = query.from(Quote.class);
+
+        // The id is always read, to attach list values to their rows
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(quote.get("id"));
+        for (String column : columns) {
+            selections.add(propertyPath(quote, column));
+        }
+        query.multiselect(selections);
+        page(cb, query, quote, criteria, sortField, direction, after);
+
+        // Tuple position of each property, or -1 for a list filled in afterwards
+        int[] positions = new int[properties.size()];
+        for (int p = 0; p < positions.length; p++) {
+            int column = columns.indexOf(properties.get(p));
+            positions[p] = column >= 0 ? column + 1 : -1;
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<UUID, Map<String, Object>> rowsById = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int p = 0; p < positions.length; p++) {
+                row.put(properties.get(p), positions[p] >= 0 ? tuple.get(positions[p]) : new ArrayList<>());
+            }
+            rows.add(row);
+            rowsById.put(tuple.get(0, UUID.class), row);
+        }
+
+        if (!rowsById.isEmpty()) {
+            for (String list : lists) {
+                addListValues(list, rowsById);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<Quote> streamAll(QuoteSearchCriteria criteria, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Quote> query = cb.createQuery(Quote.class);
+        Root<Quote> quote = query.from(Quote.class);
+
+        query.select(quote)
+                .where(filters(cb, quote, criteria).toArray(new Predicate[0]))
+                .orderBy(cb.asc(quote.get("createdAt")), cb.asc(quote.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<QuoteAggregate> aggregate(QuoteSearchCriteria criteria, QuoteStatsGroup group,
+                                          QuoteStatus convertedStatus) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Quote> quote = query.from(Quote.class);
+
+        List<Expression<?>> keys = groupKeys(cb, quote, group);
+        Expression<Long> converted = cb.sum(cb.<Long>selectCase()
+                .when(cb.equal(quote.get("status"), convertedStatus), 1L)
+                .otherwise(0L));
+
+        List<Selection<?>> selections = new ArrayList<>(keys);
+        selections.add(cb.count(quote));
+        selections.add(converted);
+        selections.add(cb.sum(quote.<BigDecimal>get("premium")));
+        selections.add(cb.sum(quote.<BigDecimal>get("sumInsured")));
+
+        query.multiselect(selections)
+                .where(filters(cb, quote, criteria).toArray(new Predicate[0]))
+                .groupBy(keys)
+                .orderBy(keys.stream().map(cb::asc).toList());
+
+        int k = keys.size();
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new QuoteAggregate(
+                        groupKey(group, row),
+                        row.get(k, Long.class),
+                        row.get(k + 1, Long.class),
+                        row.get(k + 2, BigDecimal.class),
+                        row.get(k + 3, BigDecimal.class)))
+                .toList();
+    }
+
+    @Override
+    public Optional<QuoteStatusChange> updateStatus(UUID id, QuoteStatus newStatus, QuoteStatus expectedStatus,
+                                                    Long expectedVersion, LocalDateTime updatedAt) {
+        return executeStatusUpdate(List.of(id), newStatus, expectedStatus, expectedVersion, updatedAt).stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<QuoteState> updateStatus(Collection<UUID> ids, QuoteStatus newStatus, QuoteStatus expectedStatus,
+                                         LocalDateTime updatedAt) {
+        return executeStatusUpdate(ids, newStatus, expectedStatus, null, updatedAt).stream()
+                .map(QuoteStatusChange::previous)
+                .collect(Collectors.toList());
+    }
+
+    // The CTE locks the rows and reads their status before the move, so the UPDATE can return it
+    // alongside the new row in the same round trip. Locking re-reads a row a concurrent writer
+    // changed, so the previous status returned is the one actually replaced.
+    private List<QuoteStatusChange> executeStatusUpdate(Collection<UUID> ids, QuoteStatus newStatus,
+                                                        QuoteStatus expectedStatus, Long expectedVersion,
+                                                        LocalDateTime updatedAt) {
+        StringBuilder sql = new StringBuilder()
+                .append("WITH moving AS (")
+                .append(" SELECT id, status FROM quotes")
+                .append(" WHERE id IN (:ids) AND status IN (:reachable)");
+        if (expectedStatus != null) {
+            sql.append(" AND status = :expectedStatus");
+        }
+        if (expectedVersion != null) {
+            sql.append(" AND version = :expectedVersion");
+        }
+        sql.append(" FOR UPDATE)")
+                .append(" UPDATE quotes q SET status = :status, version = q.version + 1, updated_at = :updatedAt")
+                .append(" FROM moving WHERE q.id = moving.id")
+                .append(" RETURNING q.id, q.broker_id, moving.status, q.insurance_type, q.premium, q.sum_insured,")
+                .append(" q.full_name, q.email, q.residential_address, q.version");
+
+        // Only quotes whose lifecycle allows the move
+        List<Short> reachable = newStatus.reachableFrom().stream().map(QuoteStatus::getCode).toList();
+        Query query = entityManager.createNativeQuery(sql.toString(), Tuple.class)
+                .setParameter("ids", ids)
+                .setParameter("reachable", reachable)
+                .setParameter("status", newStatus.getCode())
+                .setParameter("updatedAt", updatedAt);
+        if (expectedStatus != null) {
+            query.setParameter("expectedStatus", expectedStatus.getCode());
+        }
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+
+        List<QuoteStatusChange> moved = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Tuple row = (Tuple) result;
+            QuoteState previous = new QuoteState(row.get(0, UUID.class), row.get(1, UUID.class),
+                    QuoteStatus.fromCode(((Number) row.get(2)).shortValue()), row.get(3, String.class),
+                    row.get(4, BigDecimal.class), row.get(5, BigDecimal.class), row.get(6, String.class),
+                    row.get(7, String.class), row.get(8, String.class));
+            moved.add(new QuoteStatusChange(previous, ((Number) row.get(9)).longValue()));
+        }
+        return moved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addListValues(String property, Map<UUID, Map<String, Object>> rowsById) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Quote> quote = query.from(Quote.class);
+        Join<Quote, Object> value = quote.join(property);
+        query.multiselect(quote.get("id"), value)
+                .where(quote.get("id").in(rowsById.keySet()));
+
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            ((List<Object>) rowsById.get(tuple.get(0, UUID.class)).get(property)).add(tuple.get(1));
+        }
+    }
+
+    // Filters, keyset position and order shared by both forms of findPage
+    private void page(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Quote> quote, QuoteSearchCriteria criteria,
+                      QuoteSortField sortField, Sort.Direction direction, QuoteCursor after) {
+        List<Predicate> predicates = filters(cb, quote, criteria);
+        if (after != null) {
+            predicates.add(after(cb, quote, sortField, direction, after));
+        }
+
+        Path<Comparable<Object>> sortPath = quote.get(sortField.getProperty());
+        Path<UUID> id = quote.get("id");
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(direction.isAscending()
+                        ? List.of(cb.asc(sortPath), cb.asc(id))
+                        : List.of(cb.desc(sortPath), cb.desc(id)));
+    }
+
+    // QuoteDto property names are the entity's attribute names, except brokerId
+    private static Attribute<? super Quote, ?> attribute(EntityType<Quote> entity, String property) {
+        if ("brokerId".equals(property)) {
+            return entity.getAttribute("broker");
+        }
+        Attribute<? super Quote, ?> attribute = entity.getAttributes().stream()
+                .filter(candidate -> candidate.getName().equals(property))
+                .findFirst()
+                .orElse(null);
+        if (attribute == null || attribute.isAssociation()) {
+            throw new IllegalArgumentException("Unknown quote field: " + property);
+        }
+        return attribute;
+    }
+
+    private static Path<?> propertyPath(Root<Quote> quote, String property) {
+        // broker.id reads the foreign key column without joining brokers
+        return "brokerId".equals(property) ? quote.get("broker").get("id") : quote.get(property);
+    }
+
+    private List<Expression<?>> groupKeys(CriteriaBuilder cb, Root<Quote> quote, QuoteStatsGroup group) {
+        return switch (group) {
+            case STATUS -> List.of(quote.get("status"));
+            // broker.id reads the foreign key column without joining brokers
+            case BROKER -> List.of(quote.get("broker").get("id"));
+            case INSURANCE_TYPE -> List.of(quote.get("insuranceType"));
+            case CREATED_MONTH -> {
+                Path<LocalDateTime> createdAt = quote.get("createdAt");
+                yield List.of(cb.function("year", Integer.class, createdAt),
+                        cb.function("month", Integer.class, createdAt));
+            }
+        };
+    }
+
+    private String groupKey(QuoteStatsGroup group, Tuple row) {
+        if (group == QuoteStatsGroup.CREATED_MONTH) {
+            return String.format("%04d-%02d", row.get(0, Integer.class), row.get(1, Integer.class));
+        }
+        return String.valueOf(row.get(0));
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<Quote> quote, QuoteSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getBrokerId() != null) {
+            predicates.add(cb.equal(quote.get("broker").get("id"), criteria.getBrokerId()));
+        }
+        if (criteria.getStatus() != null) {
+            predicates.add(cb.equal(quote.get("status"), QuoteStatus.fromValue(criteria.getStatus())));
+        }
+        if (criteria.getInsuranceType() != null) {
+            predicates.add(cb.equal(quote.get("insuranceType"), criteria.getInsuranceType()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(quote.get("createdAt"), criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(quote.get("createdAt"), criteria.getCreatedTo()));
+        }
+        if (criteria.getMinPremium() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(quote.get("premium"), criteria.getMinPremium()));
+        }
+        if (criteria.getMaxPremium() != null) {
+            predicates.add(cb.lessThanOrEqualTo(quote.get("premium"), criteria.getMaxPremium()));
+        }
+        return predicates;
+    }
+
+    // (sort, id) > (value, lastId) for ascending order, < for descending
+    @SuppressWarnings("unchecked")
+    private Predicate after(CriteriaBuilder cb, Root<Quote> quote, QuoteSortField sortField,
+                            Sort.Direction direction, QuoteCursor cursor) {
+        Path<Comparable<Object>> sortPath = quote.get(sortField.getProperty());
+        Path<UUID> id = quote.get("id");
+        Comparable<Object> value = (Comparable<Object>) cursor.value();
+
+        // PostgreSQL cannot seek an index on the OR alone and would filter every row before the
+        // cursor, so the sort value's bound is repeated as a plain range it can start the scan at
+        if (direction.isAscending()) {
+            return cb.and(
+                    cb.greaterThanOrEqualTo(sortPath, value),
+                    cb.or(
+                            cb.greaterThan(sortPath, value),
+                            cb.and(cb.equal(sortPath, value), cb.greaterThan(id, cursor.id()))));
+        }
+        return cb.and(
+                cb.lessThanOrEqualTo(sortPath, value),
+                cb.or(
+                        cb.lessThan(sortPath, value),
+                        cb.and(cb.equal(sortPath, value), cb.lessThan(id, cursor.id()))));
+    }
+}
@@ -0,0 +1,13 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.model.QuoteStatus;
+
+import java.util.UUID;
+
+/**
+ * The searchable and displayed fields of one quote.
+ */
+public record QuoteSearchDocument(UUID id, UUID brokerId, String fullName, String email,
+                                  String residentialAddress, QuoteStatus status) {
+}
@@ -0,0 +1,49 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.model.Quote;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Columns a quote listing can be ordered by. Each is paired with {@code id} as a
+ * tie-breaker so the ordering is total and usable as a keyset.
+ */
+public enum QuoteSortField {
+    CREATED_AT("createdAt", Quote::getCreatedAt, LocalDateTime::parse),
+    UPDATED_AT("updatedAt", Quote::getUpdatedAt, LocalDateTime::parse),
+    PREMIUM("premium", Quote::getPremium, BigDecimal::new);
+    
+    private final String property;
+    private final Function<Quote, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+    
+    QuoteSortField(String property, Function<Quote, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    public Comparable<?> valueOf(Quote quote) {
+        return extractor.apply(quote);
+    }
+    
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+    
+    public static QuoteSortField fromProperty(String property) {
+        for (QuoteSortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort property: " + property);
+    }
+}
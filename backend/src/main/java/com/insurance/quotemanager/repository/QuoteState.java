@@ -0,0 +1,19 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.model.QuoteStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The fields of a quote that the in-memory counters, the search index and the journal
+ * track, read before a change that does not load the quote.
+ */
+public record QuoteState(UUID id, UUID brokerId, QuoteStatus status, String insuranceType, BigDecimal premium,
+                         BigDecimal sumInsured, String fullName, String email, String residentialAddress) {
+
+    public QuoteTally tally() {
+        return new QuoteTally(brokerId, status, insuranceType, 1, premium, sumInsured);
+    }
+}
@@ -0,0 +1,13 @@
+
+package com.insurance.quotemanager.repository;
+
+/**
+ * Dimensions quote statistics can be grouped by.
+ */
+public enum QuoteStatsGroup {
+    STATUS,
+    BROKER,
+    INSURANCE_TYPE,
+    // Calendar month of createdAt, keyed "yyyy-MM"
+    CREATED_MONTH
+}
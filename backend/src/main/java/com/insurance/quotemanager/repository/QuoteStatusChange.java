@@ -0,0 +1,9 @@
+
+package com.insurance.quotemanager.repository;
+
+/**
+ * A quote moved by a status UPDATE: its state before the move, with the previous status,
+ * and the version the move gave it.
+ */
+public record QuoteStatusChange(QuoteState previous, long version) {
+}
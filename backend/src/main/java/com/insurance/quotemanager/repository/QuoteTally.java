@@ -0,0 +1,15 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.model.QuoteStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Quote count and sums for one (broker, status, insurance type) combination. A single
+ * quote is a tally with a count of one.
+ */
+public record QuoteTally(UUID brokerId, QuoteStatus status, String insuranceType, long count,
+                         BigDecimal premium, BigDecimal sumInsured) {
+}
@@ -0,0 +1,34 @@
+
+package com.insurance.quotemanager.repository;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time each Hibernate session spends executing JDBC statements and batches to
+ * the current thread's {@link SqlStatementCounter}. Hibernate creates one per session, and
+ * a session is used by one thread at a time.
+ */
+public class SqlExecutionTimer extends BaseSessionEventListener {
+    
+    private long executionStarted;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStarted = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementCounter.addExecutionNanos(System.nanoTime() - executionStarted);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStarted = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementCounter.addExecutionNanos(System.nanoTime() - executionStarted);
+    }
+}
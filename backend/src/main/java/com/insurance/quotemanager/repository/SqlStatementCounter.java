@@ -0,0 +1,42 @@
+
+package com.insurance.quotemanager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, and the time spent
+ * executing them as reported by {@link SqlExecutionTimer}.
+ * <p>
+ * Registered as the session factory's {@link StatementInspector}; callers bracket a
+ * unit of work with {@link #reset()} and {@link #count()} to assert how many round
+ * trips it took.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    // [0] statements prepared, [1] nanoseconds spent executing
+    private static final ThreadLocal<long[]> TOTALS = ThreadLocal.withInitial(() -> new long[2]);
+    
+    @Override
+    public String inspect(String sql) {
+        TOTALS.get()[0]++;
+        return sql;
+    }
+    
+    public static void reset() {
+        long[] totals = TOTALS.get();
+        totals[0] = 0;
+        totals[1] = 0;
+    }
+    
+    public static int count() {
+        return (int) TOTALS.get()[0];
+    }
+    
+    public static long executionNanos() {
+        return TOTALS.get()[1];
+    }
+    
+    static void addExecutionNanos(long nanos) {
+        TOTALS.get()[1] += nanos;
+    }
+}
@@ -0,0 +1,12 @@
+
+package com.insurance.quotemanager.repository;
+
+import java.util.UUID;
+
+/**
+ * What a login needs from a user row: the password hash to check and the fields of the
+ * response. Cached in place of the {@code User} entity.
+ */
+public record UserCredentials(UUID id, String email, String passwordHash, String firstName, String lastName,
+                              UUID brokerId) {
+}
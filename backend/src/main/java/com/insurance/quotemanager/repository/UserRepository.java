@@ -3,6 +3,8 @@ package com.insurance.quotemanager.repository;
 
 import com.insurance.quotemanager.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +14,9 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+    
+    @Query("select new com.insurance.quotemanager.repository.UserCredentials("
+            + "u.id, u.email, u.password, u.firstName, u.lastName, u.broker.id) "
+            + "from User u where u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
 }
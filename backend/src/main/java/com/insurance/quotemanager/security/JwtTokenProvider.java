@@ -1,17 +1,26 @@
 
 package com.insurance.quotemanager.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
     
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -19,8 +28,25 @@ public class JwtTokenProvider {
     @Value("${jwt.expirationMs}")
     private int jwtExpirationMs;
     
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize = 10000;
+    
+    private Key signingKey;
+    
+    private JwtParser parser;
+    
+    // Tokens whose signature has already been checked, evicted at their own expiry
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
     }
     
     public String generateToken(UUID userId) {
@@ -31,26 +57,76 @@ public class JwtTokenProvider {
                 .setSubject(userId.toString())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the token and returns its user id, or {@code null} when the token is
+     * invalid or expired. Signature checks are done once per token; later calls with
+     * the same token are answered from the verified-token cache until it expires.
+     */
+    public UUID verifyToken(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified != null && verified.expiresAtMillis() > System.currentTimeMillis()) {
+            return verified.userId();
+        }
+        
+        Claims claims;
+        UUID userId;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+            userId = UUID.fromString(claims.getSubject());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
         
-        return UUID.fromString(claims.getSubject());
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(token, new VerifiedToken(userId, expiration.getTime()));
+        }
+        return userId;
+    }
+    
+    public UUID getUserIdFromToken(String token) {
+        UUID userId = verifyToken(token);
+        if (userId == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return userId;
     }
     
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception ex) {
-            return false;
+        return verifyToken(token) != null;
+    }
+    
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "verifiedTokens");
+    }
+    
+    private record VerifiedToken(UUID userId, long expiresAtMillis) {
+    }
+    
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            long remainingMillis = verified.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,136 @@
+
+package com.insurance.quotemanager.security;
+
+import com.insurance.quotemanager.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks passwords against their BCrypt hashes on a small dedicated pool, so a burst of
+ * logins cannot take every CPU away from the rest of the API.
+ * <p>
+ * At most {@code auth.password.threads} hashes run at once and at most
+ * {@code auth.password.queue-capacity} wait behind them. A login arriving at a full queue,
+ * or left unanswered for {@code auth.password.max-wait}, fails with a
+ * {@link ServiceBusyException} instead of adding to the backlog; a check that times out
+ * while still queued is cancelled before it reaches a worker.
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor workers;
+    private final long maxWaitMillis;
+
+    private final Timer queueTimer;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    @Autowired
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.password.threads:0}") int threads,
+                            @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                            @Value("${auth.password.max-wait:2s}") Duration maxWait) {
+        this.passwordEncoder = passwordEncoder;
+        // By default leave half the cores to everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMillis = maxWait.toMillis();
+
+        this.queueTimer = Timer.builder("auth.login.stage").tag("stage", "queue").register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.login.stage").tag("stage", "hash").register(meterRegistry);
+        this.rejections = Counter.builder("auth.password.rejected")
+                .description("Password checks refused because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", workers, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks being hashed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether {@code rawPassword} hashes to {@code encodedPassword}, blocking until a worker
+     * has checked it.
+     *
+     * @throws ServiceBusyException when the pool is saturated
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long submitted = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = workers.submit(() -> {
+                long started = System.nanoTime();
+                queueTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    hashTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            throw busy();
+        }
+
+        try {
+            return result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // A check still in the queue is dropped rather than hashed for nobody
+            result.cancel(false);
+            workers.purge();
+            throw busy();
+        } catch (InterruptedException ex) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private ServiceBusyException busy() {
+        rejections.increment();
+        return new ServiceBusyException("Too many logins in progress, retry shortly");
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,49 +1,98 @@
-
 package com.insurance.quotemanager.service;
 
+import com.insurance.quotemanager.cache.IdentityCache;
 import com.insurance.quotemanager.dto.AuthRequest;
 import com.insurance.quotemanager.dto.AuthResponse;
 import com.insurance.quotemanager.dto.UserDto;
-import com.insurance.quotemanager.model.User;
-import com.insurance.quotemanager.repository.UserRepository;
+import com.insurance.quotemanager.exception.ServiceBusyException;
+import com.insurance.quotemanager.mapper.UserMapper;
+import com.insurance.quotemanager.repository.UserCredentials;
 import com.insurance.quotemanager.security.JwtTokenProvider;
-import org.springframework.beans.BeanUtils;
+import com.insurance.quotemanager.security.PasswordVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class AuthService {
     
-    @Autowired
-    private UserRepository userRepository;
+    private final IdentityCache identityCache;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final PasswordVerifier passwordVerifier;
+    private final UserMapper userMapper;
     
-    @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    private final Timer lookupTimer;
+    private final Timer tokenTimer;
+    
+    private final Timer successTimer;
+    private final Timer unknownEmailTimer;
+    private final Timer badPasswordTimer;
+    private final Timer rejectedTimer;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    public AuthService(IdentityCache identityCache,
+                       JwtTokenProvider jwtTokenProvider,
+                       PasswordVerifier passwordVerifier,
+                       UserMapper userMapper,
+                       MeterRegistry meterRegistry) {
+        this.identityCache = identityCache;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordVerifier = passwordVerifier;
+        this.userMapper = userMapper;
+        
+        this.lookupTimer = Timer.builder("auth.login.stage").tag("stage", "lookup").register(meterRegistry);
+        this.tokenTimer = Timer.builder("auth.login.stage").tag("stage", "token").register(meterRegistry);
+        
+        this.successTimer = loginTimer(meterRegistry, "success");
+        this.unknownEmailTimer = loginTimer(meterRegistry, "unknown_email");
+        this.badPasswordTimer = loginTimer(meterRegistry, "bad_password");
+        this.rejectedTimer = loginTimer(meterRegistry, "rejected");
+    }
     
-    public AuthResponse login(AuthRequest authRequest) {
-        User user = userRepository.findByEmail(authRequest.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + authRequest.getEmail()));
+    /**
+     * Checks the credentials and issues a token, or returns empty when the email is unknown
+     * or the password is wrong. Failed logins build no exception.
+     *
+     * @throws ServiceBusyException when too many password checks are already in progress
+     */
+    public Optional<AuthResponse> login(AuthRequest authRequest) {
+        long started = System.nanoTime();
+        Optional<UserCredentials> user = identityCache.findUserByEmail(authRequest.getEmail());
+        long lookedUp = System.nanoTime();
+        lookupTimer.record(lookedUp - started, TimeUnit.NANOSECONDS);
+        if (user.isEmpty()) {
+            return finish(started, unknownEmailTimer, Optional.empty());
+        }
         
-        if (!passwordEncoder.matches(authRequest.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid password");
+        boolean matches;
+        try {
+            matches = passwordVerifier.matches(authRequest.getPassword(), user.get().passwordHash());
+        } catch (ServiceBusyException ex) {
+            finish(started, rejectedTimer, Optional.empty());
+            throw ex;
+        }
+        if (!matches) {
+            return finish(started, badPasswordTimer, Optional.empty());
         }
         
-        String token = jwtTokenProvider.generateToken(user.getId());
-        UserDto userDto = convertToDto(user);
+        long verified = System.nanoTime();
+        String token = jwtTokenProvider.generateToken(user.get().id());
+        UserDto userDto = userMapper.toDto(user.get());
+        tokenTimer.record(System.nanoTime() - verified, TimeUnit.NANOSECONDS);
         
-        return new AuthResponse(token, userDto);
+        return finish(started, successTimer, Optional.of(new AuthResponse(token, userDto)));
     }
     
-    private UserDto convertToDto(User user) {
-        UserDto userDto = new UserDto();
-        BeanUtils.copyProperties(user, userDto);
-        if (user.getBroker() != null) {
-            userDto.setBrokerId(user.getBroker().getId());
-        }
-        return userDto;
+    private Optional<AuthResponse> finish(long started, Timer outcome, Optional<AuthResponse> response) {
+        outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return response;
+    }
+    
+    private static Timer loginTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.login").tag("outcome", outcome).register(meterRegistry);
     }
 }
@@ -1,10 +1,12 @@
 
 package com.insurance.quotemanager.service;
 
+import com.insurance.quotemanager.cache.IdentityCache;
 import com.insurance.quotemanager.dto.BrokerDto;
+import com.insurance.quotemanager.mapper.BrokerMapper;
 import com.insurance.quotemanager.model.Broker;
 import com.insurance.quotemanager.repository.BrokerRepository;
-import org.springframework.beans.BeanUtils;
+import com.insurance.quotemanager.repository.BrokerTableVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,28 +20,41 @@ public class BrokerService {
     @Autowired
     private BrokerRepository brokerRepository;
     
+    @Autowired
+    private BrokerMapper brokerMapper;
+    
+    @Autowired
+    private IdentityCache identityCache;
+    
     public List<BrokerDto> getAllBrokers() {
         return brokerRepository.findAll().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Changes whenever a broker is added, updated or removed; one aggregate query.
+     */
+    public BrokerTableVersion getBrokerTableVersion() {
+        return brokerRepository.findTableVersion();
+    }
+    
     public BrokerDto getBrokerById(UUID id) {
-        return brokerRepository.findById(id)
-                .map(this::convertToDto)
+        return identityCache.findBroker(id)
                 .orElseThrow(() -> new RuntimeException("Broker not found with id: " + id));
     }
     
     public BrokerDto getBrokerByEmail(String email) {
-        return brokerRepository.findByEmail(email)
-                .map(this::convertToDto)
+        return identityCache.findBrokerByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Broker not found with email: " + email));
     }
     
     public BrokerDto createBroker(BrokerDto brokerDto) {
         Broker broker = convertToEntity(brokerDto);
         Broker savedBroker = brokerRepository.save(broker);
-        return convertToDto(savedBroker);
+        BrokerDto savedBrokerDto = convertToDto(savedBroker);
+        identityCache.putBroker(savedBrokerDto);
+        return savedBrokerDto;
     }
     
     public BrokerDto updateBroker(UUID id, BrokerDto brokerDto) {
@@ -50,22 +65,21 @@ public class BrokerService {
         Broker broker = convertToEntity(brokerDto);
         broker.setId(id);
         Broker savedBroker = brokerRepository.save(broker);
-        return convertToDto(savedBroker);
+        BrokerDto savedBrokerDto = convertToDto(savedBroker);
+        identityCache.putBroker(savedBrokerDto);
+        return savedBrokerDto;
     }
     
     public void deleteBroker(UUID id) {
         brokerRepository.deleteById(id);
+        identityCache.evictBroker(id);
     }
     
     private BrokerDto convertToDto(Broker broker) {
-        BrokerDto brokerDto = new BrokerDto();
-        BeanUtils.copyProperties(broker, brokerDto);
-        return brokerDto;
+        return brokerMapper.toDto(broker);
     }
     
     private Broker convertToEntity(BrokerDto brokerDto) {
-        Broker broker = new Broker();
-        BeanUtils.copyProperties(brokerDto, broker);
-        return broker;
+        return brokerMapper.toEntity(brokerDto);
     }
 }
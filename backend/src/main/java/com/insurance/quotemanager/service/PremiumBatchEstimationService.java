@@ -0,0 +1,230 @@
+
+package com.insurance.quotemanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurance.quotemanager.dto.PremiumBatchResultDto;
+import com.insurance.quotemanager.dto.PremiumBatchSummaryDto;
+import com.insurance.quotemanager.dto.QuoteDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-prices newline-delimited {@link QuoteDto} records in parallel.
+ * <p>
+ * Records are parsed and rated on a CPU-sized worker pool while results are written
+ * back in submission order. At most {@code premium.batch.max-in-flight} records per batch
+ * are held in memory at any time, so heap use does not grow with the batch size. The pool
+ * is shared by all batches and queues at most {@code premium.batch.queue-capacity}
+ * records; beyond that the request thread rates the record itself, which slows its own
+ * reading instead of growing the queue.
+ * <p>
+ * Finished results are written as soon as they are at the head of the order. The first
+ * one is flushed straight away, then every {@value #FLUSH_INTERVAL} and whenever the
+ * writer has to wait for a result. If writing fails, typically because the client went
+ * away, records still queued for this batch are cancelled.
+ */
+@Service
+public class PremiumBatchEstimationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PremiumBatchEstimationService.class);
+
+    private static final int FLUSH_INTERVAL = 256;
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final PremiumCalculationService premiumCalculationService;
+    private final ObjectReader quoteReader;
+    private final ObjectWriter lineWriter;
+    private final int maxInFlight;
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    public PremiumBatchEstimationService(PremiumCalculationService premiumCalculationService,
+                                         ObjectMapper objectMapper,
+                                         @Value("${premium.batch.max-in-flight:1024}") int maxInFlight,
+                                         @Value("${premium.batch.threads:0}") int threads,
+                                         @Value("${premium.batch.queue-capacity:4096}") int queueCapacity) {
+        this.premiumCalculationService = premiumCalculationService;
+        this.quoteReader = objectMapper.readerFor(QuoteDto.class);
+        this.lineWriter = objectMapper.writer();
+        this.maxInFlight = maxInFlight;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Reads NDJSON quotes from {@code input} and writes one {@link PremiumBatchResultDto}
+     * line per record to {@code output}, followed by a final {@code {"summary": ...}} line.
+     */
+    public PremiumBatchSummaryDto estimate(InputStream input, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        long records = 0;
+
+        ArrayDeque<Future<PremiumBatchResultDto>> pending = new ArrayDeque<>(maxInFlight);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ResultWriter results = new ResultWriter(output);
+
+        boolean finished = false;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (pending.size() >= maxInFlight) {
+                    results.writeNext(pending);
+                }
+                long index = records++;
+                String record = line;
+                pending.add(workers.submit(() -> estimate(index, record)));
+                results.writeDone(pending);
+            }
+            while (!pending.isEmpty()) {
+                results.writeNext(pending);
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                cancel(pending);
+            }
+        }
+
+        long failed = results.failed;
+        long elapsedNanos = System.nanoTime() - started;
+        double recordsPerSecond = elapsedNanos > 0 ? records * 1_000_000_000.0 / elapsedNanos : 0.0;
+        PremiumBatchSummaryDto summary = new PremiumBatchSummaryDto(
+                records, failed, elapsedNanos / 1_000_000, Math.round(recordsPerSecond * 100.0) / 100.0);
+
+        output.write(lineWriter.writeValueAsBytes(Map.of("summary", summary)));
+        output.write(NEWLINE);
+        output.flush();
+
+        log.info("Premium batch estimated {} records ({} failed) in {} ms, {} records/s",
+                records, failed, summary.getElapsedMs(), summary.getRecordsPerSecond());
+        return summary;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private PremiumBatchResultDto estimate(long index, String record) {
+        try {
+            QuoteDto quote = quoteReader.readValue(record);
+            return new PremiumBatchResultDto(index, premiumCalculationService.calculatePremium(quote), null);
+        } catch (JsonProcessingException ex) {
+            return new PremiumBatchResultDto(index, null, "Malformed quote record: " + ex.getOriginalMessage());
+        } catch (RuntimeException ex) {
+            return new PremiumBatchResultDto(index, null, ex.getMessage());
+        }
+    }
+
+    private void cancel(ArrayDeque<Future<PremiumBatchResultDto>> pending) {
+        for (Future<PremiumBatchResultDto> future : pending) {
+            future.cancel(false);
+        }
+        // Free the queue slots now rather than when a worker reaches them
+        workers.purge();
+        log.info("Premium batch abandoned; cancelled {} pending records", pending.size());
+    }
+
+    private static PremiumBatchResultDto result(Future<PremiumBatchResultDto> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a premium estimate");
+        } catch (ExecutionException ex) {
+            // estimate(long, String) reports failures in its result, so only errors get here
+            throw new IllegalStateException("Premium estimate failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Writes results in submission order and decides when to flush: after the first
+     * result, then every {@value #FLUSH_INTERVAL}, and before waiting on one that is not
+     * ready, so nothing written sits in the buffer while the batch is stalled.
+     */
+    private final class ResultWriter {
+        private final OutputStream output;
+        private long written;
+        private long flushedAt;
+        private long failed;
+
+        private ResultWriter(OutputStream output) {
+            this.output = output;
+        }
+
+        /** Writes the oldest pending result, waiting for it if necessary. */
+        void writeNext(ArrayDeque<Future<PremiumBatchResultDto>> pending) throws IOException {
+            if (!pending.peek().isDone()) {
+                flush();
+            }
+            write(result(pending.poll()));
+        }
+
+        /** Writes the pending results that are already finished and at the head of the order. */
+        void writeDone(ArrayDeque<Future<PremiumBatchResultDto>> pending) throws IOException {
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                write(result(pending.poll()));
+            }
+            if (flushedAt == 0 || written - flushedAt >= FLUSH_INTERVAL) {
+                flush();
+            }
+        }
+
+        private void write(PremiumBatchResultDto result) throws IOException {
+            output.write(lineWriter.writeValueAsBytes(result));
+            output.write(NEWLINE);
+            written++;
+            if (result.getError() != null) {
+                failed++;
+            }
+        }
+
+        private void flush() throws IOException {
+            if (written > flushedAt) {
+                output.flush();
+                flushedAt = written;
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "premium-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,103 +3,88 @@ package com.insurance.quotemanager.service;
 
 import com.insurance.quotemanager.dto.QuoteDto;
 import com.insurance.quotemanager.dto.PremiumCalculationResultDto;
+import com.insurance.quotemanager.dto.PremiumSweepRangeDto;
+import com.insurance.quotemanager.dto.PremiumSweepRequestDto;
+import com.insurance.quotemanager.dto.PremiumSweepResultDto;
+import com.insurance.quotemanager.rating.PremiumEstimate;
+import com.insurance.quotemanager.rating.PremiumEstimateCache;
+import com.insurance.quotemanager.rating.RatingCalendar;
+import com.insurance.quotemanager.rating.RatingTableStore;
+import com.insurance.quotemanager.rating.RatingTables;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PremiumCalculationService {
 
-    // Base premium rates for different property types
-    private static final Map<String, Double> BASE_RATES = Map.of(
-        "Single Family Home", 500.0,
-        "Apartment", 350.0,
-        "Condominium", 400.0,
-        "Townhouse", 450.0,
-        "Mobile Home", 600.0
-    );
-    
-    // Seasonal adjustments by month (0-based index)
-    private static final Map<Integer, Double> SEASONAL_ADJUSTMENTS = Map.of(
-        0, 1.05, // January - Winter risks
-        1, 1.03, // February
-        2, 1.00, // March
-        3, 0.98, // April
-        4, 0.97, // May
-        5, 0.95, // June - Summer discount
-        6, 0.96, // July
-        7, 0.98, // August
-        8, 0.99, // September
-        9, 1.00, // October
-        10, 1.02, // November
-        11, 1.04  // December - Winter risks
-    );
-    
-    // Regional risk factors by state
-    private static final Map<String, Map<String, Double>> REGIONAL_FACTORS = new HashMap<>();
-    
-    static {
-        // Initialize regional factors
-        Map<String, Double> caFactors = new HashMap<>();
-        caFactors.put("Single Family Home", 1.08);
-        caFactors.put("Apartment", 1.05);
-        caFactors.put("Condominium", 1.06);
-        caFactors.put("Townhouse", 1.07);
-        caFactors.put("Mobile Home", 1.12);
-        REGIONAL_FACTORS.put("CA", caFactors);
-        
-        Map<String, Double> flFactors = new HashMap<>();
-        flFactors.put("Single Family Home", 1.15);
-        flFactors.put("Apartment", 1.10);
-        flFactors.put("Condominium", 1.12);
-        flFactors.put("Townhouse", 1.13);
-        flFactors.put("Mobile Home", 1.25);
-        REGIONAL_FACTORS.put("FL", flFactors);
-        
-        // Default factors
-        Map<String, Double> defaultFactors = new HashMap<>();
-        defaultFactors.put("Single Family Home", 1.0);
-        defaultFactors.put("Apartment", 0.98);
-        defaultFactors.put("Condominium", 0.99);
-        defaultFactors.put("Townhouse", 1.01);
-        defaultFactors.put("Mobile Home", 1.05);
-        REGIONAL_FACTORS.put("default", defaultFactors);
+    private final RatingTableStore ratingTableStore;
+    
+    private final RatingCalendar ratingCalendar = new RatingCalendar();
+    
+    private final PremiumEstimateCache estimateCache;
+    
+    private final Timer estimateTimer;
+    
+    private final Timer sweepTimer;
+    
+    @Value("${premium.sweep.max-points:100000}")
+    private int maxSweepPoints = 100000;
+    
+    public PremiumCalculationService() {
+        this(new PremiumEstimateCache(), new RatingTableStore());
+    }
+    
+    public PremiumCalculationService(PremiumEstimateCache estimateCache, RatingTableStore ratingTableStore) {
+        this(estimateCache, ratingTableStore, Metrics.globalRegistry);
+    }
+    
+    @Autowired
+    public PremiumCalculationService(PremiumEstimateCache estimateCache, RatingTableStore ratingTableStore,
+                                     MeterRegistry meterRegistry) {
+        this.estimateCache = estimateCache;
+        this.ratingTableStore = ratingTableStore;
+        this.estimateTimer = calculationTimer(meterRegistry, "estimate");
+        this.sweepTimer = calculationTimer(meterRegistry, "sweep");
     }
     
     public PremiumCalculationResultDto calculatePremium(QuoteDto quoteDto) {
-        double basePremium = calculateBasePremium(quoteDto);
-        
-        // Get current date for seasonal adjustment
-        int currentMonth = LocalDate.now().getMonthValue() - 1; // 0-based index
-        double seasonalFactor = SEASONAL_ADJUSTMENTS.getOrDefault(currentMonth, 1.0);
-        
-        // Get advanced age impact
-        double ageImpact = getAdvancedAgeImpact(quoteDto.getPropertyDetails().getYearBuilt());
+        long started = System.nanoTime();
+        PremiumCalculationResultDto result = estimatePremium(quoteDto);
+        estimateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
+    }
+    
+    private PremiumCalculationResultDto estimatePremium(QuoteDto quoteDto) {
+        RatingTables tables = ratingTableStore.current();
         
-        // Get regional trend factor
-        double regionalFactor = getRegionalFactor(
-            quoteDto.getPropertyDetails().getAddress().getState(),
-            quoteDto.getPropertyDetails().getPropertyType()
-        );
+        int propertyType = tables.propertyTypeIndex(quoteDto.getPropertyType());
+        int region = tables.regionIndexForAddress(quoteDto.getResidentialAddress());
+        int month = ratingCalendar.currentMonth();
+        // Unknown construction year is rated neutrally
+        int age = quoteDto.getYearOfConstruction() != null
+                ? ratingCalendar.currentYear() - quoteDto.getYearOfConstruction()
+                : PremiumEstimateCache.UNKNOWN_AGE;
+        double coverageAmount = coverageAmount(quoteDto);
         
-        // Calculate optimized premium
-        double optimizedPremium = basePremium * seasonalFactor * ageImpact * regionalFactor;
-        
-        // Round to 2 decimal places
-        double finalPremium = Math.round(optimizedPremium * 100.0) / 100.0;
+        PremiumEstimate estimate = estimateCache.get(tables, propertyType, region, month, age, coverageAmount,
+                PremiumCalculationService::rate);
         
         // Create result DTO
         PremiumCalculationResultDto result = new PremiumCalculationResultDto();
-        result.setPremium(finalPremium);
-        result.setBaseRate(basePremium);
-        
-        Map<String, Double> adjustments = new HashMap<>();
-        adjustments.put("seasonal", seasonalFactor);
-        adjustments.put("propertyAge", ageImpact);
-        adjustments.put("regionalRisk", regionalFactor);
-        result.setAdjustments(adjustments);
+        result.setPremium(estimate.premium());
+        result.setBaseRate(estimate.basePremium());
+        result.setAdjustments(Map.of(
+                "seasonal", estimate.seasonalFactor(),
+                "propertyAge", estimate.ageFactor(),
+                "regionalRisk", estimate.regionalFactor()));
         
         return result;
     }
@@ -119,41 +104,138 @@ public class PremiumCalculationService {
         return baseResult;
     }
     
+    /**
+     * Rates the base quote over the grid of the given ranges in one pass over primitive
+     * arrays. Dimensions without a range take the base quote's value (or the current month).
+     */
+    public PremiumSweepResultDto sweepPremiums(PremiumSweepRequestDto request) {
+        long started = System.nanoTime();
+        PremiumSweepResultDto result = sweep(request);
+        sweepTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
+    }
+    
+    private PremiumSweepResultDto sweep(PremiumSweepRequestDto request) {
+        QuoteDto quoteDto = request.getQuote() != null ? request.getQuote() : new QuoteDto();
+        RatingTables tables = ratingTableStore.current();
+        
+        double[] coverageAmounts = request.getSumInsured() != null
+                ? expand(request.getSumInsured(), "sumInsured", 0, Double.MAX_VALUE)
+                : new double[] {coverageAmount(quoteDto)};
+        int[] years = request.getYearOfConstruction() != null
+                ? toInts(expand(request.getYearOfConstruction(), "yearOfConstruction", 0, 9999))
+                : new int[] {quoteDto.getYearOfConstruction() != null
+                        ? quoteDto.getYearOfConstruction() : PremiumSweepResultDto.UNKNOWN_YEAR};
+        int[] months = request.getStartMonth() != null
+                ? toInts(expand(request.getStartMonth(), "startMonth", 1, 12))
+                : new int[] {ratingCalendar.currentMonth() + 1};
+        
+        long points = (long) coverageAmounts.length * years.length * months.length;
+        if (points > maxSweepPoints) {
+            throw new IllegalArgumentException("Sweep of " + points + " points exceeds the limit of " + maxSweepPoints);
+        }
+        
+        double[] ageImpacts = new double[years.length];
+        for (int y = 0; y < years.length; y++) {
+            ageImpacts[y] = years[y] != PremiumSweepResultDto.UNKNOWN_YEAR
+                    ? tables.ageFactor(ratingCalendar.currentYear() - years[y]) : 1.0;
+        }
+        int[] monthIndexes = new int[months.length];
+        for (int m = 0; m < months.length; m++) {
+            monthIndexes[m] = months[m] - 1;
+        }
+        
+        double[] premiums = new double[(int) points];
+        tables.sweep(tables.propertyTypeIndex(quoteDto.getPropertyType()),
+                tables.regionIndexForAddress(quoteDto.getResidentialAddress()),
+                monthIndexes, ageImpacts, coverageAmounts, premiums);
+        return new PremiumSweepResultDto(coverageAmounts, years, months, premiums);
+    }
+    
+    /**
+     * Identifies what {@link #getCalculationFactors()} currently returns: the rating table
+     * version and when it was loaded, which also changes on a reload of the same version.
+     */
+    public String getCalculationFactorsVersion() {
+        return ratingTableStore.current().getVersion() + "-" + ratingTableStore.getLoadedAt().toEpochMilli();
+    }
+    
     public Map<String, Object> getCalculationFactors() {
+        RatingTables tables = ratingTableStore.current();
         Map<String, Object> factors = new HashMap<>();
-        factors.put("baseRates", BASE_RATES);
-        factors.put("seasonalAdjustments", SEASONAL_ADJUSTMENTS);
-        factors.put("regionalFactors", REGIONAL_FACTORS);
+        factors.put("version", tables.getVersion());
+        factors.put("loadedAt", ratingTableStore.getLoadedAt());
+        factors.put("baseRates", tables.baseRatesAsMap());
+        factors.put("seasonalAdjustments", tables.seasonalAdjustmentsAsMap());
+        factors.put("regionalFactors", tables.regionalFactorsAsMap());
         return factors;
     }
     
-    private double calculateBasePremium(QuoteDto quoteDto) {
-        // Simplified base calculation - in a real implementation, this would be more complex
-        String propertyType = quoteDto.getPropertyDetails().getPropertyType();
-        double basePremium = BASE_RATES.getOrDefault(propertyType, 500.0);
-        
-        // Adjust for coverage amount
-        double coverageAmount = quoteDto.getPolicyDetails().getCoverageAmount();
-        basePremium = basePremium * (1 + (coverageAmount / 200000.0));
-        
-        return basePremium;
+    /**
+     * Reloads the rating tables file and returns the factors now in effect.
+     */
+    public Map<String, Object> reloadCalculationFactors() {
+        ratingTableStore.reload();
+        return getCalculationFactors();
     }
     
-    private double getAdvancedAgeImpact(int yearBuilt) {
-        int currentYear = LocalDate.now().getYear();
-        int age = currentYear - yearBuilt;
-        
-        // Exponential aging factor with plateau
-        if (age <= 5) return 0.88;
-        if (age <= 10) return 0.92 + (age - 5) * 0.016;
-        if (age <= 20) return 1.0 + (age - 10) * 0.008;
-        if (age <= 40) return 1.08 + (age - 20) * 0.006;
-        if (age <= 60) return 1.2 + (age - 40) * 0.005;
-        return 1.3 + Math.min((age - 60) * 0.002, 0.3); // Cap at 1.6
+    private static Timer calculationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("premium.calculation")
+                .description("Time to rate a quote, or a whole sweep grid")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+    
+    private static double coverageAmount(QuoteDto quoteDto) {
+        return quoteDto.getSumInsured() != null ? quoteDto.getSumInsured().doubleValue() : 0.0;
+    }
+    
+    private double[] expand(PremiumSweepRangeDto range, String name, double min, double max) {
+        double step = range.getStep() != null ? range.getStep() : 1.0;
+        if (!(step > 0) || range.getTo() < range.getFrom() || range.getFrom() < min || range.getTo() > max) {
+            throw new IllegalArgumentException("Invalid " + name + " range: from " + range.getFrom()
+                    + " to " + range.getTo() + " step " + step);
+        }
+        // The tolerance keeps an end point that is an exact multiple of the step
+        long count = (long) Math.floor((range.getTo() - range.getFrom()) / step + 1e-9) + 1;
+        if (count > maxSweepPoints) {
+            throw new IllegalArgumentException("Sweep of " + count + " " + name + " values exceeds the limit of "
+                    + maxSweepPoints);
+        }
+        double[] values = new double[(int) count];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = range.getFrom() + i * step;
+        }
+        return values;
+    }
+    
+    private static int[] toInts(double[] values) {
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = (int) Math.round(values[i]);
+        }
+        return ints;
     }
     
-    private double getRegionalFactor(String state, String propertyType) {
-        Map<String, Double> stateFactors = REGIONAL_FACTORS.getOrDefault(state, REGIONAL_FACTORS.get("default"));
-        return stateFactors.getOrDefault(propertyType, 1.0);
+    private static PremiumEstimate rate(RatingTables tables, int propertyType, int region, int month, int age,
+                                        double coverageAmount) {
+        double basePremium = tables.basePremium(propertyType, coverageAmount);
+        
+        // Seasonal adjustment for the current month
+        double seasonalFactor = tables.seasonalFactor(month);
+        
+        // Get advanced age impact
+        double ageImpact = age != PremiumEstimateCache.UNKNOWN_AGE ? tables.ageFactor(age) : 1.0;
+        
+        // Get regional trend factor
+        double regionalFactor = tables.regionalFactor(region, propertyType);
+        
+        // Calculate optimized premium
+        double optimizedPremium = basePremium * seasonalFactor * ageImpact * regionalFactor;
+        
+        // Round to 2 decimal places
+        double finalPremium = Math.round(optimizedPremium * 100.0) / 100.0;
+        
+        return new PremiumEstimate(tables, basePremium, seasonalFactor, ageImpact, regionalFactor, finalPremium);
     }
 }
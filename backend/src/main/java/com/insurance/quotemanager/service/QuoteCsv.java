@@ -0,0 +1,113 @@
+
+package com.insurance.quotemanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.quotemanager.dto.QuoteDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV layout shared by quote import and export: one record per quote, columns named after
+ * {@link QuoteDto} properties. Cells holding a comma, quote or line break are quoted, so a
+ * record may span several lines. List items are separated by {@code ;}; a {@code ;} or
+ * {@code \} inside an item is escaped with a {@code \}.
+ */
+final class QuoteCsv {
+    
+    private static final char ITEM_SEPARATOR = ';';
+    private static final char ITEM_ESCAPE = '\\';
+    
+    private QuoteCsv() {
+    }
+    
+    static CsvMapper mapper() {
+        return CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addMixIn(QuoteDto.class, ListCells.class)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    /** Schema for reading records whose columns are named by the header row. */
+    static CsvSchema readSchema() {
+        return CsvSchema.emptySchema().withHeader();
+    }
+    
+    /** Schema for writing every {@link QuoteDto} property, with a header row. */
+    static CsvSchema writeSchema(CsvMapper mapper) {
+        return mapper.schemaFor(QuoteDto.class).withHeader();
+    }
+    
+    // Both list properties are read and written as one escaped cell
+    abstract static class ListCells {
+        @JsonSerialize(using = ListCellSerializer.class)
+        @JsonDeserialize(using = ListCellDeserializer.class)
+        private List<String> fireSafetyMeasures;
+        
+        @JsonSerialize(using = ListCellSerializer.class)
+        @JsonDeserialize(using = ListCellDeserializer.class)
+        private List<String> securityFeatures;
+    }
+    
+    static final class ListCellSerializer extends JsonSerializer<List<String>> {
+        @Override
+        public void serialize(List<String> items, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            StringBuilder cell = new StringBuilder();
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    cell.append(ITEM_SEPARATOR);
+                }
+                String item = items.get(i) != null ? items.get(i) : "";
+                for (int j = 0; j < item.length(); j++) {
+                    char c = item.charAt(j);
+                    if (c == ITEM_SEPARATOR || c == ITEM_ESCAPE) {
+                        cell.append(ITEM_ESCAPE);
+                    }
+                    cell.append(c);
+                }
+            }
+            generator.writeString(cell.toString());
+        }
+    }
+    
+    static final class ListCellDeserializer extends JsonDeserializer<List<String>> {
+        @Override
+        public List<String> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String cell = parser.getValueAsString();
+            List<String> items = new ArrayList<>();
+            StringBuilder item = new StringBuilder();
+            for (int i = 0; i < cell.length(); i++) {
+                char c = cell.charAt(i);
+                if (c == ITEM_ESCAPE && i + 1 < cell.length()) {
+                    item.append(cell.charAt(++i));
+                } else if (c == ITEM_SEPARATOR) {
+                    items.add(item.toString());
+                    item.setLength(0);
+                } else {
+                    item.append(c);
+                }
+            }
+            items.add(item.toString());
+            return items;
+        }
+    }
+}
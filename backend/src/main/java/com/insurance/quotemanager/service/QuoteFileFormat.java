@@ -0,0 +1,36 @@
+
+package com.insurance.quotemanager.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats accepted by quote import and produced by quote export.
+ */
+public enum QuoteFileFormat {
+    
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+    
+    private final String mediaType;
+    
+    QuoteFileFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public String getMediaType() {
+        return mediaType;
+    }
+    
+    public static QuoteFileFormat fromMediaType(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.valueOf(CSV.mediaType)) ? CSV : NDJSON;
+    }
+    
+    public static QuoteFileFormat fromName(String name) {
+        for (QuoteFileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + name);
+    }
+}
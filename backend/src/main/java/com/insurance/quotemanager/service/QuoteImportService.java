@@ -0,0 +1,373 @@
+
+package com.insurance.quotemanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insurance.quotemanager.cache.IdentityCache;
+import com.insurance.quotemanager.cache.QuoteCounters;
+import com.insurance.quotemanager.cache.QuoteSearchIndex;
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.dto.QuoteImportErrorDto;
+import com.insurance.quotemanager.dto.QuoteImportSummaryDto;
+import com.insurance.quotemanager.journal.QuoteEvent;
+import com.insurance.quotemanager.journal.QuoteEventType;
+import com.insurance.quotemanager.journal.QuoteJournal;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteSearchDocument;
+import com.insurance.quotemanager.repository.QuoteTally;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk-loads quotes from CSV or NDJSON uploads.
+ * <p>
+ * The upload is parsed one record at a time and validated per row. Valid rows are
+ * buffered up to {@code quotes.import.chunk-size} and written with JDBC batch inserts,
+ * into {@code quotes} and both collection tables, in one transaction per chunk. A chunk
+ * the database rejects is retried one row per transaction, so only the offending rows are
+ * reported. Errors are streamed back as they are found, so memory use does not depend on
+ * the file size. CSV follows {@link QuoteCsv}, so anything exported can be imported again.
+ * <p>
+ * A record's {@code createdAt} and {@code updatedAt} are kept when given, so quotes moved
+ * from another system keep their history; otherwise both are the time of the import.
+ */
+@Service
+public class QuoteImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteImportService.class);
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private static final String INSERT_QUOTE = "INSERT INTO quotes (id, full_name, email, phone, residential_address, "
+            + "date_of_birth, property_type, construction_type, year_of_construction, total_square_area, "
+            + "number_of_rooms, number_of_bathrooms, number_of_floors, is_occupied_full_time, sum_insured, "
+            + "policy_start_date, policy_end_date, policy_duration, renewal_type, automatic_renewal, "
+            + "nearby_fire_station, high_value_items, fire_safety_other, security_features_other, insurance_type, "
+            + "status, premium, broker_id, version, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FIRE_SAFETY_MEASURE =
+            "INSERT INTO quote_fire_safety_measures (quote_id, measure) VALUES (?, ?)";
+
+    private static final String INSERT_SECURITY_FEATURE =
+            "INSERT INTO quote_security_features (quote_id, feature) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdentityCache identityCache;
+    private final QuoteCounters quoteCounters;
+    private final QuoteSearchIndex quoteSearchIndex;
+    private final QuoteJournal quoteJournal;
+    private final ObjectReader jsonReader;
+    private final ObjectWriter lineWriter;
+    private final ObjectReader csvReader;
+    private final int chunkSize;
+
+    @Autowired
+    public QuoteImportService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              IdentityCache identityCache,
+                              QuoteCounters quoteCounters,
+                              QuoteSearchIndex quoteSearchIndex,
+                              QuoteJournal quoteJournal,
+                              ObjectMapper objectMapper,
+                              @Value("${quotes.import.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.identityCache = identityCache;
+        this.quoteCounters = quoteCounters;
+        this.quoteSearchIndex = quoteSearchIndex;
+        this.quoteJournal = quoteJournal;
+        this.jsonReader = objectMapper.readerFor(QuoteDto.class);
+        this.lineWriter = objectMapper.writer();
+        this.csvReader = QuoteCsv.mapper().readerFor(QuoteDto.class).with(QuoteCsv.readSchema());
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every record in {@code input}, writing one {@link QuoteImportErrorDto} line to
+     * {@code report} per rejected row and a final {@code {"summary": ...}} line.
+     */
+    public QuoteImportSummaryDto importQuotes(InputStream input, QuoteFileFormat format, OutputStream report)
+            throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ImportProgress progress = new ImportProgress(report);
+        List<PendingQuote> chunk = new ArrayList<>(chunkSize);
+
+        if (format == QuoteFileFormat.CSV) {
+            // Parsed from the stream rather than split into lines, since a quoted cell may hold line breaks
+            MappingIterator<QuoteDto> records = csvReader.readValues(reader);
+            while (records.hasNextValue()) {
+                long row = ++progress.rows;
+                QuoteDto quoteDto;
+                try {
+                    quoteDto = records.nextValue();
+                } catch (JsonProcessingException ex) {
+                    progress.reject(row, "Malformed record: " + ex.getOriginalMessage());
+                    continue;
+                }
+                add(row, quoteDto, chunk, progress);
+            }
+        } else {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long row = ++progress.rows;
+                QuoteDto quoteDto;
+                try {
+                    quoteDto = jsonReader.readValue(line);
+                } catch (JsonProcessingException ex) {
+                    progress.reject(row, "Malformed record: " + ex.getOriginalMessage());
+                    continue;
+                }
+                add(row, quoteDto, chunk, progress);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+
+        QuoteImportSummaryDto summary = new QuoteImportSummaryDto(progress.rows, progress.imported,
+                progress.failed, (System.nanoTime() - started) / 1_000_000);
+        report.write(lineWriter.writeValueAsBytes(Map.of("summary", summary)));
+        report.write(NEWLINE);
+        report.flush();
+
+        log.info("Quote import: {} rows, {} imported, {} failed in {} ms",
+                summary.getRows(), summary.getImported(), summary.getFailed(), summary.getElapsedMs());
+        return summary;
+    }
+
+    private void add(long row, QuoteDto quoteDto, List<PendingQuote> chunk, ImportProgress progress)
+            throws IOException {
+        String error = validate(quoteDto);
+        if (error != null) {
+            progress.reject(row, error);
+            return;
+        }
+        chunk.add(new PendingQuote(row, quoteDto));
+        if (chunk.size() == chunkSize) {
+            writeChunk(chunk, progress);
+            chunk.clear();
+        }
+    }
+
+    private String validate(QuoteDto quote) {
+        List<String> missing = new ArrayList<>();
+        if (isBlank(quote.getFullName())) missing.add("fullName");
+        if (isBlank(quote.getEmail())) missing.add("email");
+        if (isBlank(quote.getResidentialAddress())) missing.add("residentialAddress");
+        if (quote.getSumInsured() == null) missing.add("sumInsured");
+        if (quote.getPolicyStartDate() == null) missing.add("policyStartDate");
+        if (quote.getPolicyEndDate() == null) missing.add("policyEndDate");
+        if (isBlank(quote.getPolicyDuration())) missing.add("policyDuration");
+        if (isBlank(quote.getRenewalType())) missing.add("renewalType");
+        if (isBlank(quote.getInsuranceType())) missing.add("insuranceType");
+        if (quote.getBrokerId() == null) missing.add("brokerId");
+        if (!missing.isEmpty()) {
+            return "Missing required fields: " + String.join(", ", missing);
+        }
+        if (quote.getPolicyEndDate().isBefore(quote.getPolicyStartDate())) {
+            return "policyEndDate is before policyStartDate";
+        }
+        try {
+            statusOf(quote);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+        if (identityCache.findBroker(quote.getBrokerId()).isEmpty()) {
+            return "Broker not found with id: " + quote.getBrokerId();
+        }
+        return null;
+    }
+
+    private void writeChunk(List<PendingQuote> chunk, ImportProgress progress) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            insert(chunk, now);
+            progress.imported += chunk.size();
+        } catch (DataAccessException chunkFailure) {
+            // The batch rolled back as a whole; one row per transaction finds the rows at fault
+            for (PendingQuote pending : chunk) {
+                try {
+                    insert(List.of(pending), now);
+                    progress.imported++;
+                } catch (DataAccessException ex) {
+                    progress.reject(pending.row, "Not imported: "
+                            + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+        progress.report.flush();
+    }
+
+    private void insert(List<PendingQuote> quotes, LocalDateTime now) {
+        List<Object[]> fireSafetyMeasures = new ArrayList<>();
+        List<Object[]> securityFeatures = new ArrayList<>();
+        for (PendingQuote pending : quotes) {
+            addCollectionRows(fireSafetyMeasures, pending.id, pending.quote.getFireSafetyMeasures());
+            addCollectionRows(securityFeatures, pending.id, pending.quote.getSecurityFeatures());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_QUOTE, quotes, quotes.size(),
+                    (ps, pending) -> bindQuote(ps, pending, now));
+            jdbcTemplate.batchUpdate(INSERT_FIRE_SAFETY_MEASURE, fireSafetyMeasures);
+            jdbcTemplate.batchUpdate(INSERT_SECURITY_FEATURE, securityFeatures);
+            imported(quotes);
+        });
+    }
+
+    // Registered inside the chunk's transaction, so the counter cells are pending before the
+    // rows commit and nothing is applied if they roll back
+    private void imported(List<PendingQuote> quotes) {
+        List<QuoteEvent> events = new ArrayList<>(quotes.size());
+        for (PendingQuote pending : quotes) {
+            quoteCounters.added(tally(pending.quote));
+            quoteSearchIndex.put(searchDocument(pending));
+            events.add(createdEvent(pending));
+        }
+        quoteJournal.recordAll(events);
+    }
+
+    private static QuoteTally tally(QuoteDto quote) {
+        return new QuoteTally(quote.getBrokerId(), statusOf(quote), quote.getInsuranceType(), 1,
+                premiumOf(quote), quote.getSumInsured());
+    }
+
+    private static QuoteSearchDocument searchDocument(PendingQuote pending) {
+        QuoteDto quote = pending.quote;
+        return new QuoteSearchDocument(pending.id, quote.getBrokerId(), quote.getFullName(), quote.getEmail(),
+                quote.getResidentialAddress(), statusOf(quote));
+    }
+
+    private static QuoteEvent createdEvent(PendingQuote pending) {
+        QuoteDto quote = pending.quote;
+        return QuoteEvent.of(QuoteEventType.CREATED, pending.id, quote.getBrokerId(), statusOf(quote).getValue(),
+                null, quote.getInsuranceType(), premiumOf(quote), quote.getSumInsured(), quote.getFullName(),
+                quote.getEmail(), quote.getResidentialAddress());
+    }
+
+    private static void addCollectionRows(List<Object[]> rows, UUID quoteId, List<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                rows.add(new Object[] {quoteId, value});
+            }
+        }
+    }
+
+    private static void bindQuote(PreparedStatement ps, PendingQuote pending, LocalDateTime now) throws SQLException {
+        QuoteDto quote = pending.quote;
+        LocalDateTime createdAt = quote.getCreatedAt() != null ? quote.getCreatedAt() : now;
+        LocalDateTime updatedAt = quote.getUpdatedAt() != null ? quote.getUpdatedAt() : now;
+        int i = 1;
+        ps.setObject(i++, pending.id);
+        ps.setString(i++, quote.getFullName());
+        ps.setString(i++, quote.getEmail());
+        ps.setString(i++, quote.getPhone());
+        ps.setString(i++, quote.getResidentialAddress());
+        setNullable(ps, i++, quote.getDateOfBirth(), Types.DATE);
+        ps.setString(i++, quote.getPropertyType());
+        ps.setString(i++, quote.getConstructionType());
+        setNullable(ps, i++, quote.getYearOfConstruction(), Types.INTEGER);
+        setNullable(ps, i++, quote.getTotalSquareArea(), Types.NUMERIC);
+        setNullable(ps, i++, quote.getNumberOfRooms(), Types.INTEGER);
+        setNullable(ps, i++, quote.getNumberOfBathrooms(), Types.INTEGER);
+        setNullable(ps, i++, quote.getNumberOfFloors(), Types.INTEGER);
+        ps.setBoolean(i++, quote.getIsOccupiedFullTime() == null || quote.getIsOccupiedFullTime());
+        ps.setBigDecimal(i++, quote.getSumInsured());
+        ps.setObject(i++, quote.getPolicyStartDate());
+        ps.setObject(i++, quote.getPolicyEndDate());
+        ps.setString(i++, quote.getPolicyDuration());
+        ps.setString(i++, quote.getRenewalType());
+        ps.setBoolean(i++, quote.getAutomaticRenewal() == null || quote.getAutomaticRenewal());
+        setNullable(ps, i++, quote.getNearbyFireStation(), Types.BOOLEAN);
+        setNullable(ps, i++, quote.getHighValueItems(), Types.BOOLEAN);
+        ps.setString(i++, quote.getFireSafetyOther());
+        ps.setString(i++, quote.getSecurityFeaturesOther());
+        ps.setString(i++, quote.getInsuranceType());
+        ps.setShort(i++, statusOf(quote).getCode());
+        ps.setBigDecimal(i++, premiumOf(quote));
+        ps.setObject(i++, quote.getBrokerId());
+        ps.setLong(i++, 0L);
+        ps.setTimestamp(i++, Timestamp.valueOf(createdAt));
+        ps.setTimestamp(i, Timestamp.valueOf(updatedAt));
+    }
+
+    private static QuoteStatus statusOf(QuoteDto quote) {
+        return isBlank(quote.getStatus()) ? QuoteStatus.DRAFT : QuoteStatus.fromValue(quote.getStatus());
+    }
+
+    private static BigDecimal premiumOf(QuoteDto quote) {
+        return quote.getPremium() != null ? quote.getPremium() : BigDecimal.ZERO;
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class PendingQuote {
+        private final long row;
+        private final UUID id = UUID.randomUUID();
+        private final QuoteDto quote;
+
+        private PendingQuote(long row, QuoteDto quote) {
+            this.row = row;
+            this.quote = quote;
+        }
+    }
+
+    private final class ImportProgress {
+        private final OutputStream report;
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private ImportProgress(OutputStream report) {
+            this.report = report;
+        }
+
+        private void reject(long row, String error) throws IOException {
+            failed++;
+            report.write(lineWriter.writeValueAsBytes(new QuoteImportErrorDto(row, error)));
+            report.write(NEWLINE);
+        }
+    }
+}
@@ -1,16 +1,45 @@
 
 package com.insurance.quotemanager.service;
 
+import com.insurance.quotemanager.cache.IdentityCache;
+import com.insurance.quotemanager.cache.QuoteCounters;
+import com.insurance.quotemanager.cache.QuoteSearchIndex;
 import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.dto.QuoteEventDto;
+import com.insurance.quotemanager.dto.QuotePageDto;
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.dto.QuoteSearchResultDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkResultDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkUpdateDto;
+import com.insurance.quotemanager.dto.QuoteStatusDto;
+import com.insurance.quotemanager.exception.ConflictException;
+import com.insurance.quotemanager.journal.QuoteEvent;
+import com.insurance.quotemanager.journal.QuoteEventType;
+import com.insurance.quotemanager.journal.QuoteJournal;
+import com.insurance.quotemanager.mapper.QuoteMapper;
 import com.insurance.quotemanager.model.Broker;
 import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
 import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.repository.QuoteCursor;
 import com.insurance.quotemanager.repository.QuoteRepository;
-import org.springframework.beans.BeanUtils;
+import com.insurance.quotemanager.repository.QuoteSearchDocument;
+import com.insurance.quotemanager.repository.QuoteSortField;
+import com.insurance.quotemanager.repository.QuoteState;
+import com.insurance.quotemanager.repository.QuoteStatusChange;
+import com.insurance.quotemanager.repository.QuoteTally;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,6 +52,129 @@ public class QuoteService {
     @Autowired
     private BrokerRepository brokerRepository;
     
+    @Autowired
+    private QuoteMapper quoteMapper;
+    
+    @Autowired
+    private IdentityCache identityCache;
+    
+    @Autowired
+    private QuoteCounters quoteCounters;
+    
+    @Autowired
+    private QuoteSearchIndex quoteSearchIndex;
+    
+    @Autowired
+    private QuoteJournal quoteJournal;
+    
+    // The columns a quote list view shows, requested with fields=summary
+    static final List<String> SUMMARY_FIELDS = List.of(
+            "id", "fullName", "insuranceType", "status", "premium", "brokerId", "createdAt");
+    
+    @Value("${quotes.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${quotes.page.max-size:500}")
+    private int maxPageSize;
+    
+    @Value("${quotes.status.bulk-max-size:1000}")
+    private int maxBulkStatusUpdate;
+    
+    /**
+     * Keyset-paginated listing. {@code sort} is {@code "<property>,<asc|desc>"}; {@code cursor}
+     * is the {@code nextCursor} of the previous page and must have been issued for the same sort.
+     * With {@code fields} (comma-separated {@link QuoteDto} properties, or {@code summary}),
+     * only those columns are selected and each item is a map of just those properties.
+     */
+    public QuotePageDto<?> searchQuotes(QuoteSearchCriteria criteria, String cursor, Integer limit, String sort,
+                                        String fields) {
+        String[] sortParts = sort.split(",");
+        QuoteSortField sortField = QuoteSortField.fromProperty(sortParts[0].trim());
+        Sort.Direction direction = sortParts.length > 1
+                ? Sort.Direction.fromString(sortParts[1].trim())
+                : Sort.Direction.DESC;
+        
+        QuoteCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = QuoteCursor.decode(cursor);
+            if (after.sortField() != sortField || after.direction() != direction) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort than " + sort);
+            }
+        }
+        
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        
+        if (fields != null && !fields.isBlank()) {
+            return searchQuoteFields(criteria, sortField, direction, after, pageSize, fields);
+        }
+        
+        // Fetch one extra row to learn whether another page follows
+        List<Quote> quotes = quoteRepository.findPage(criteria, sortField, direction, after, pageSize + 1);
+        boolean hasMore = quotes.size() > pageSize;
+        if (hasMore) {
+            quotes = quotes.subList(0, pageSize);
+        }
+        
+        String nextCursor = hasMore
+                ? QuoteCursor.after(quotes.get(quotes.size() - 1), sortField, direction).encode()
+                : null;
+        List<QuoteDto> items = quotes.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return new QuotePageDto<>(items, nextCursor, hasMore);
+    }
+    
+    private QuotePageDto<Map<String, Object>> searchQuoteFields(QuoteSearchCriteria criteria, QuoteSortField sortField,
+                                                                Sort.Direction direction, QuoteCursor after,
+                                                                int pageSize, String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.equals("summary")) {
+                requested.addAll(SUMMARY_FIELDS);
+            } else if (!name.isEmpty()) {
+                requested.add(name);
+            }
+        }
+        // The next cursor is built from the sort value and id, selected even when not requested
+        Set<String> selected = new LinkedHashSet<>(requested);
+        selected.add("id");
+        selected.add(sortField.getProperty());
+        
+        List<Map<String, Object>> rows = quoteRepository.findPage(criteria, sortField, direction, after,
+                pageSize + 1, List.copyOf(selected));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            nextCursor = new QuoteCursor(sortField, direction, (Comparable<?>) last.get(sortField.getProperty()),
+                    (UUID) last.get("id")).encode();
+        }
+        if (selected.size() > requested.size()) {
+            for (Map<String, Object> row : rows) {
+                row.keySet().retainAll(requested);
+            }
+        }
+        return new QuotePageDto<>(rows, nextCursor, hasMore);
+    }
+    
+    /**
+     * Ranked full-text lookup of quotes by client name, email or address, served from the
+     * in-memory {@link QuoteSearchIndex}. Every word of {@code q} must match a word, or the
+     * start of one, in one of those fields.
+     */
+    public QuoteSearchResultDto findQuotes(String q, UUID brokerId, int offset, Integer limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return quoteSearchIndex.search(q, brokerId, offset, pageSize);
+    }
+    
     public List<QuoteDto> getAllQuotes() {
         return quoteRepository.findAll().stream()
                 .map(this::convertToDto)
@@ -36,13 +188,13 @@ public class QuoteService {
     }
     
     public List<QuoteDto> getQuotesByStatus(String status) {
-        return quoteRepository.findByStatus(status).stream()
+        return quoteRepository.findByStatus(QuoteStatus.fromValue(status)).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
     public List<QuoteDto> getQuotesByBrokerAndStatus(UUID brokerId, String status) {
-        return quoteRepository.findByBrokerIdAndStatus(brokerId, status).stream()
+        return quoteRepository.findByBrokerIdAndStatus(brokerId, QuoteStatus.fromValue(status)).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -53,54 +205,169 @@ public class QuoteService {
                 .orElseThrow(() -> new RuntimeException("Quote not found with id: " + id));
     }
     
+    /**
+     * Every journaled change to a quote, oldest first; still available once it is deleted.
+     */
+    public List<QuoteEventDto> getQuoteHistory(UUID id) {
+        return quoteJournal.history(id).stream()
+                .map(QuoteService::toEventDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * The quote's last-modified time without loading it, for answering conditional GETs.
+     */
+    public Optional<LocalDateTime> findQuoteUpdatedAt(UUID id) {
+        return quoteRepository.findUpdatedAtById(id);
+    }
+    
+    @Transactional
     public QuoteDto createQuote(QuoteDto quoteDto) {
         Quote quote = convertToEntity(quoteDto);
-        Broker broker = brokerRepository.findById(quoteDto.getBrokerId())
-                .orElseThrow(() -> new RuntimeException("Broker not found with id: " + quoteDto.getBrokerId()));
-        quote.setBroker(broker);
+        quote.setBroker(brokerReference(quoteDto.getBrokerId()));
         Quote savedQuote = quoteRepository.save(quote);
+        quoteCounters.added(tally(savedQuote));
+        quoteSearchIndex.put(searchDocument(savedQuote));
+        quoteJournal.record(event(QuoteEventType.CREATED, savedQuote, null));
         return convertToDto(savedQuote);
     }
     
+    @Transactional
     public QuoteDto updateQuote(UUID id, QuoteDto quoteDto) {
         Quote existingQuote = quoteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Quote not found with id: " + id));
+        QuoteTally before = tally(existingQuote);
         
         // Update fields but preserve id and created date
         Quote updatedQuote = convertToEntity(quoteDto);
         updatedQuote.setId(existingQuote.getId());
         updatedQuote.setCreatedAt(existingQuote.getCreatedAt());
+        // A client-supplied version makes the save fail on a concurrent change instead of overwriting it
+        updatedQuote.setVersion(quoteDto.getVersion() != null ? quoteDto.getVersion() : existingQuote.getVersion());
         
-        Broker broker = brokerRepository.findById(quoteDto.getBrokerId())
-                .orElseThrow(() -> new RuntimeException("Broker not found with id: " + quoteDto.getBrokerId()));
-        updatedQuote.setBroker(broker);
+        updatedQuote.setBroker(brokerReference(quoteDto.getBrokerId()));
+        if (updatedQuote.getStatus() != null && !before.status().canMoveTo(updatedQuote.getStatus())) {
+            throw new ConflictException(illegalMove(id, before.status(), updatedQuote.getStatus()));
+        }
         
-        Quote savedQuote = quoteRepository.save(updatedQuote);
+        // Flushed so the returned version and updatedAt are the ones the row now holds
+        Quote savedQuote = quoteRepository.saveAndFlush(updatedQuote);
+        quoteCounters.changed(before, tally(savedQuote));
+        quoteSearchIndex.put(searchDocument(savedQuote));
+        quoteJournal.record(event(QuoteEventType.UPDATED, savedQuote, before.status().getValue()));
         return convertToDto(savedQuote);
     }
     
-    public QuoteDto updateQuoteStatus(UUID id, String status) {
-        Quote quote = quoteRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Quote not found with id: " + id));
-        quote.setStatus(status);
-        Quote savedQuote = quoteRepository.save(quote);
-        return convertToDto(savedQuote);
+    /**
+     * Moves a quote to {@code status} with one conditional UPDATE. When {@code expectedStatus}
+     * or {@code expectedVersion} is given and no longer matches, or the quote's lifecycle does
+     * not allow the move, a {@link ConflictException} is thrown instead.
+     */
+    @Transactional
+    public QuoteStatusDto updateQuoteStatus(UUID id, String status, String expectedStatus, Long expectedVersion) {
+        QuoteStatus newStatus = QuoteStatus.fromValue(status);
+        QuoteStatus expected = QuoteStatus.fromValue(expectedStatus);
+        // The UPDATE returns the quote's previous state, which the counters and journal need
+        Optional<QuoteStatusChange> moved = quoteRepository.updateStatus(id, newStatus, expected, expectedVersion,
+                LocalDateTime.now());
+        if (moved.isEmpty()) {
+            // Only a failed update pays for reading the quote again, to say why
+            List<QuoteState> current = quoteRepository.findStates(List.of(id));
+            if (current.isEmpty()) {
+                throw new RuntimeException("Quote not found with id: " + id);
+            }
+            if (!current.get(0).status().canMoveTo(newStatus)) {
+                throw new ConflictException(illegalMove(id, current.get(0).status(), newStatus));
+            }
+            throw new ConflictException("Quote " + id + " was changed concurrently and is no longer in the expected "
+                    + (expectedVersion != null ? "version " + expectedVersion : "status " + expectedStatus));
+        }
+        List<QuoteState> before = List.of(moved.get().previous());
+        quoteCounters.changedStatus(tallies(before), newStatus);
+        quoteSearchIndex.changedStatus(List.of(id), newStatus, expected);
+        quoteJournal.recordAll(statusEvents(before, newStatus));
+        return new QuoteStatusDto(id, newStatus.getValue(), moved.get().version());
+    }
+    
+    @Transactional
+    public QuoteStatusBulkResultDto updateQuoteStatuses(QuoteStatusBulkUpdateDto request) {
+        Set<UUID> ids = new LinkedHashSet<>(request.getIds());
+        if (ids.size() > maxBulkStatusUpdate) {
+            throw new IllegalArgumentException("At most " + maxBulkStatusUpdate + " quotes can be updated at once");
+        }
+        QuoteStatus newStatus = QuoteStatus.fromValue(request.getStatus());
+        QuoteStatus expected = QuoteStatus.fromValue(request.getExpectedStatus());
+        // Quotes whose lifecycle does not allow the move are skipped by the UPDATE; only the moved
+        // ones come back, each with its previous state
+        List<QuoteState> before = quoteRepository.updateStatus(ids, newStatus, expected, LocalDateTime.now());
+        quoteCounters.changedStatus(tallies(before), newStatus);
+        quoteSearchIndex.changedStatus(before.stream().map(QuoteState::id).collect(Collectors.toList()),
+                newStatus, expected);
+        quoteJournal.recordAll(statusEvents(before, newStatus));
+        return new QuoteStatusBulkResultDto(ids.size(), before.size());
     }
     
+    @Transactional
     public void deleteQuote(UUID id) {
-        quoteRepository.deleteById(id);
+        quoteRepository.findById(id).ifPresent(quote -> {
+            quoteRepository.delete(quote);
+            quoteCounters.removed(tally(quote));
+            quoteSearchIndex.remove(id);
+            quoteJournal.record(event(QuoteEventType.DELETED, quote, null));
+        });
+    }
+    
+    // Existence is checked against the identity cache; the quote only needs the foreign key
+    private Broker brokerReference(UUID brokerId) {
+        if (brokerId == null || identityCache.findBroker(brokerId).isEmpty()) {
+            throw new RuntimeException("Broker not found with id: " + brokerId);
+        }
+        return brokerRepository.getReferenceById(brokerId);
+    }
+    
+    private static QuoteTally tally(Quote quote) {
+        return new QuoteTally(quote.getBroker().getId(), quote.getStatus(), quote.getInsuranceType(), 1,
+                quote.getPremium(), quote.getSumInsured());
+    }
+    
+    private static List<QuoteTally> tallies(List<QuoteState> states) {
+        return states.stream().map(QuoteState::tally).collect(Collectors.toList());
+    }
+    
+    private static String illegalMove(UUID id, QuoteStatus from, QuoteStatus to) {
+        return "Quote " + id + " cannot move from status " + from + " to " + to;
+    }
+    
+    private static QuoteEvent event(QuoteEventType type, Quote quote, String previousStatus) {
+        return QuoteEvent.of(type, quote.getId(), quote.getBroker().getId(), quote.getStatus().getValue(),
+                previousStatus, quote.getInsuranceType(), quote.getPremium(), quote.getSumInsured(),
+                quote.getFullName(), quote.getEmail(), quote.getResidentialAddress());
+    }
+    
+    private static List<QuoteEvent> statusEvents(List<QuoteState> before, QuoteStatus status) {
+        return before.stream()
+                .map(quote -> QuoteEvent.of(QuoteEventType.STATUS_CHANGED, quote.id(), quote.brokerId(),
+                        status.getValue(), quote.status().getValue(), quote.insuranceType(), quote.premium(), quote.sumInsured(),
+                        quote.fullName(), quote.email(), quote.residentialAddress()))
+                .collect(Collectors.toList());
+    }
+    
+    private static QuoteEventDto toEventDto(QuoteEvent event) {
+        return new QuoteEventDto(event.sequence(), event.recordedAt(), event.type().name(), event.quoteId(),
+                event.brokerId(), event.actorId(), event.status(), event.previousStatus(), event.insuranceType(),
+                event.premium(), event.sumInsured(), event.fullName(), event.email(), event.residentialAddress());
+    }
+    
+    private static QuoteSearchDocument searchDocument(Quote quote) {
+        return new QuoteSearchDocument(quote.getId(), quote.getBroker().getId(), quote.getFullName(),
+                quote.getEmail(), quote.getResidentialAddress(), quote.getStatus());
     }
     
-    private QuoteDto convertToDto(Quote quote) {
-        QuoteDto quoteDto = new QuoteDto();
-        BeanUtils.copyProperties(quote, quoteDto);
-        quoteDto.setBrokerId(quote.getBroker().getId());
-        return quoteDto;
+    QuoteDto convertToDto(Quote quote) {
+        return quoteMapper.toDto(quote);
     }
     
-    private Quote convertToEntity(QuoteDto quoteDto) {
-        Quote quote = new Quote();
-        BeanUtils.copyProperties(quoteDto, quote);
-        return quote;
+    Quote convertToEntity(QuoteDto quoteDto) {
+        return quoteMapper.toEntity(quoteDto);
     }
 }
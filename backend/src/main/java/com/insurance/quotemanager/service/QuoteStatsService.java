@@ -0,0 +1,120 @@
+
+package com.insurance.quotemanager.service;
+
+import com.insurance.quotemanager.cache.QuoteCounters;
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.dto.QuoteStatsBucketDto;
+import com.insurance.quotemanager.dto.QuoteStatsDto;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteAggregate;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteStatsGroup;
+import com.insurance.quotemanager.repository.QuoteTally;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard statistics. {@link #getQuoteStats} runs grouped SQL aggregates and supports every
+ * listing filter; {@link #getLiveStats} answers from the in-memory {@link QuoteCounters}
+ * without touching the database.
+ */
+@Service
+public class QuoteStatsService {
+    
+    // A quote counts as converted once it is bound to a policy
+    static final QuoteStatus CONVERTED_STATUS = QuoteStatus.BOUND;
+    
+    @Autowired
+    private QuoteRepository quoteRepository;
+    
+    @Autowired
+    private QuoteCounters quoteCounters;
+    
+    @Transactional(readOnly = true)
+    public QuoteStatsDto getQuoteStats(QuoteSearchCriteria criteria) {
+        List<QuoteStatsBucketDto> byStatus = buckets(criteria, QuoteStatsGroup.STATUS);
+        List<QuoteStatsBucketDto> byBroker = buckets(criteria, QuoteStatsGroup.BROKER);
+        List<QuoteStatsBucketDto> byInsuranceType = buckets(criteria, QuoteStatsGroup.INSURANCE_TYPE);
+        List<QuoteStatsBucketDto> byMonth = buckets(criteria, QuoteStatsGroup.CREATED_MONTH);
+        return new QuoteStatsDto(totals(byStatus), byStatus, byBroker, byInsuranceType, byMonth);
+    }
+    
+    /**
+     * Same shape as {@link #getQuoteStats}, from the live counters. Monthly buckets are not
+     * tracked in memory and are returned empty.
+     */
+    public QuoteStatsDto getLiveStats(UUID brokerId, String status, String insuranceType) {
+        List<QuoteTally> tallies = quoteCounters.snapshot(brokerId, QuoteStatus.fromValue(status), insuranceType);
+        List<QuoteStatsBucketDto> byStatus = buckets(tallies, QuoteTally::status);
+        List<QuoteStatsBucketDto> byBroker = buckets(tallies, QuoteTally::brokerId);
+        List<QuoteStatsBucketDto> byInsuranceType = buckets(tallies, QuoteTally::insuranceType);
+        return new QuoteStatsDto(totals(byStatus), byStatus, byBroker, byInsuranceType, new ArrayList<>());
+    }
+    
+    private List<QuoteStatsBucketDto> buckets(QuoteSearchCriteria criteria, QuoteStatsGroup group) {
+        return quoteRepository.aggregate(criteria, group, CONVERTED_STATUS).stream()
+                .map(this::toBucket)
+                .collect(Collectors.toList());
+    }
+    
+    private List<QuoteStatsBucketDto> buckets(List<QuoteTally> tallies, Function<QuoteTally, Object> group) {
+        Map<String, List<QuoteTally>> groups = tallies.stream()
+                .collect(Collectors.groupingBy(tally -> String.valueOf(group.apply(tally)), TreeMap::new,
+                        Collectors.toList()));
+        List<QuoteStatsBucketDto> buckets = new ArrayList<>(groups.size());
+        groups.forEach((key, members) -> {
+            long count = 0;
+            long converted = 0;
+            BigDecimal premium = BigDecimal.ZERO;
+            BigDecimal sumInsured = BigDecimal.ZERO;
+            for (QuoteTally tally : members) {
+                count += tally.count();
+                if (tally.status() == CONVERTED_STATUS) {
+                    converted += tally.count();
+                }
+                premium = premium.add(tally.premium());
+                sumInsured = sumInsured.add(tally.sumInsured());
+            }
+            buckets.add(bucket(key, count, converted, premium, sumInsured));
+        });
+        return buckets;
+    }
+    
+    private QuoteStatsBucketDto toBucket(QuoteAggregate aggregate) {
+        return bucket(aggregate.key(), aggregate.count(), aggregate.converted(),
+                aggregate.premium(), aggregate.sumInsured());
+    }
+    
+    // Every quote has exactly one status, so the status groups add up to the totals
+    private QuoteStatsBucketDto totals(List<QuoteStatsBucketDto> byStatus) {
+        long count = 0;
+        long converted = 0;
+        BigDecimal premium = BigDecimal.ZERO;
+        BigDecimal sumInsured = BigDecimal.ZERO;
+        for (QuoteStatsBucketDto status : byStatus) {
+            count += status.getCount();
+            converted += status.getBoundCount();
+            premium = premium.add(status.getTotalPremium());
+            sumInsured = sumInsured.add(status.getTotalSumInsured());
+        }
+        return bucket("total", count, converted, premium, sumInsured);
+    }
+    
+    static QuoteStatsBucketDto bucket(String key, long count, long converted, BigDecimal premium,
+                                      BigDecimal sumInsured) {
+        double conversionRate = count == 0 ? 0.0 : (double) converted / count;
+        return new QuoteStatsBucketDto(key, count, converted, conversionRate,
+                premium != null ? premium : BigDecimal.ZERO,
+                sumInsured != null ? sumInsured : BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,78 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update), exactly as it stood when
+-- migrations were introduced. Constraint names are Hibernate's, so databases created before
+-- migrations, which are baselined at this version, and databases created by it end up
+-- identical. Everything added since goes in a later script.
+
+CREATE TABLE brokers (
+    id         uuid         NOT NULL,
+    company    varchar(255),
+    created_at timestamp(6) NOT NULL,
+    email      varchar(255) NOT NULL,
+    first_name varchar(255),
+    last_name  varchar(255),
+    phone      varchar(255),
+    CONSTRAINT brokers_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_9ov9kjr1th1w8arry14l6rw5q UNIQUE (email)
+);
+
+CREATE TABLE users (
+    id         uuid         NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    email      varchar(255) NOT NULL,
+    first_name varchar(255),
+    last_name  varchar(255),
+    password   varchar(255) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    broker_id  uuid,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT uk_2wn662s753wncemh6km8f1g8h UNIQUE (broker_id),
+    CONSTRAINT fkagl07bjvhpaxmg973ip5g722d FOREIGN KEY (broker_id) REFERENCES brokers (id)
+);
+
+CREATE TABLE quotes (
+    id                      uuid          NOT NULL,
+    automatic_renewal       boolean       NOT NULL,
+    construction_type       varchar(255),
+    created_at              timestamp(6)  NOT NULL,
+    date_of_birth           date,
+    email                   varchar(255)  NOT NULL,
+    fire_safety_other       varchar(255),
+    full_name               varchar(255)  NOT NULL,
+    high_value_items        boolean,
+    insurance_type          varchar(255)  NOT NULL,
+    is_occupied_full_time   boolean       NOT NULL,
+    nearby_fire_station     boolean,
+    number_of_bathrooms     integer,
+    number_of_floors        integer,
+    number_of_rooms         integer,
+    phone                   varchar(255),
+    policy_duration         varchar(255)  NOT NULL,
+    policy_end_date         date          NOT NULL,
+    policy_start_date       date          NOT NULL,
+    premium                 numeric(38,2) NOT NULL,
+    property_type           varchar(255),
+    renewal_type            varchar(255)  NOT NULL,
+    residential_address     varchar(255)  NOT NULL,
+    security_features_other varchar(255),
+    status                  varchar(255)  NOT NULL,
+    sum_insured             numeric(38,2) NOT NULL,
+    total_square_area       numeric(38,2),
+    updated_at              timestamp(6)  NOT NULL,
+    year_of_construction    integer,
+    broker_id               uuid          NOT NULL,
+    CONSTRAINT quotes_pkey PRIMARY KEY (id),
+    CONSTRAINT fkp3tfui0egnse349mp9w3k3rn4 FOREIGN KEY (broker_id) REFERENCES brokers (id)
+);
+
+CREATE TABLE quote_fire_safety_measures (
+    quote_id uuid NOT NULL,
+    measure  varchar(255),
+    CONSTRAINT fk8g8k6s0eippd3bjkaiwlrhx9t FOREIGN KEY (quote_id) REFERENCES quotes (id)
+);
+
+CREATE TABLE quote_security_features (
+    quote_id uuid NOT NULL,
+    feature  varchar(255),
+    CONSTRAINT fk7emu43bug1k68c5i5pbpphfpv FOREIGN KEY (quote_id) REFERENCES quotes (id)
+);
@@ -0,0 +1,39 @@
+-- Indexes for the quote finders and listing sorts. Built concurrently so an existing
+-- quotes table keeps taking writes meanwhile (see the .conf file next to this script).
+
+-- Columns the entities gained after V1. A database baselined at V1 may already have them
+-- from ddl-auto, but without the version default. Adding a column with a constant default
+-- does not rewrite the table.
+ALTER TABLE quotes ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE quotes ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE brokers ADD COLUMN IF NOT EXISTS updated_at timestamp(6);
+
+-- Keyset listings in creation order, with and without a broker filter
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_created_at_id
+    ON quotes (created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_broker_created_at_id
+    ON quotes (broker_id, created_at, id);
+
+-- findByBrokerIdAndStatus, and listings filtered by broker and status in creation order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_broker_status_created_at_id
+    ON quotes (broker_id, status, created_at, id);
+
+-- findByStatus, and listings filtered by status in creation order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_status_created_at_id
+    ON quotes (status, created_at, id);
+
+-- Listings sorted by updatedAt or premium, with and without a broker filter
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_updated_at_id
+    ON quotes (updated_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_broker_updated_at_id
+    ON quotes (broker_id, updated_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_premium_id
+    ON quotes (premium, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quotes_broker_premium_id
+    ON quotes (broker_id, premium, id);
+
+-- Element collections are loaded and deleted by quote_id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quote_fire_safety_measures_quote_id
+    ON quote_fire_safety_measures (quote_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quote_security_features_quote_id
+    ON quote_security_features (quote_id);
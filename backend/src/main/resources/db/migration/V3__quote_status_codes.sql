@@ -0,0 +1,42 @@
+-- Quote status becomes a small integer code (see QuoteStatus): 0 draft, 1 submitted,
+-- 2 approved, 3 rejected, 4 bound. The type change rewrites the table, so this runs in
+-- one transaction and fails as a whole.
+
+-- Stop before converting anything if a status has no code
+DO $$
+DECLARE
+    unknown text;
+BEGIN
+    SELECT string_agg(DISTINCT status, ', ') INTO unknown
+    FROM quotes
+    WHERE status NOT IN ('draft', 'submitted', 'approved', 'rejected', 'bound');
+    IF unknown IS NOT NULL THEN
+        RAISE EXCEPTION 'quotes has statuses outside the quote lifecycle: %', unknown;
+    END IF;
+END $$;
+
+-- Replaced by the partial indexes below
+DROP INDEX IF EXISTS idx_quotes_broker_status_created_at_id;
+DROP INDEX IF EXISTS idx_quotes_status_created_at_id;
+
+ALTER TABLE quotes
+    ALTER COLUMN status TYPE smallint USING CASE status
+        WHEN 'draft' THEN 0
+        WHEN 'submitted' THEN 1
+        WHEN 'approved' THEN 2
+        WHEN 'rejected' THEN 3
+        WHEN 'bound' THEN 4
+    END;
+
+ALTER TABLE quotes
+    ADD CONSTRAINT ck_quotes_status CHECK (status BETWEEN 0 AND 4);
+
+-- findByStatus and status-filtered listings only need an index while quotes are still
+-- being worked (draft, submitted, approved); rejected and bound quotes pile up and are
+-- read through the broker and date indexes instead
+CREATE INDEX idx_quotes_active_status_created_at_id
+    ON quotes (status, created_at, id)
+    WHERE status IN (0, 1, 2);
+CREATE INDEX idx_quotes_active_broker_status_created_at_id
+    ON quotes (broker_id, status, created_at, id)
+    WHERE status IN (0, 1, 2);
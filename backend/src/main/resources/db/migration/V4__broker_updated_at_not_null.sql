@@ -0,0 +1,7 @@
+-- Brokers are stamped with updated_at on every write. Rows written before that carry
+-- none and are invisible to max(updated_at), which versions the broker list, so they
+-- take their creation time before the column becomes mandatory.
+
+UPDATE brokers SET updated_at = created_at WHERE updated_at IS NULL;
+
+ALTER TABLE brokers ALTER COLUMN updated_at SET NOT NULL;
@@ -0,0 +1,76 @@
+
+package com.insurance.quotemanager;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An embedded PostgreSQL server shared by every test in the JVM, with a database of its
+ * own per test class so their data does not mix. Flyway migrates a database when the
+ * Spring context using it starts, exactly as it migrates production.
+ * <p>
+ * A test class points its context at a database from a
+ * {@link org.springframework.test.context.DynamicPropertySource} method:
+ * <pre>
+ * &#64;DynamicPropertySource
+ * static void database(DynamicPropertyRegistry registry) {
+ *     TestDatabases.register(registry, "quote_listing");
+ * }
+ * </pre>
+ */
+public final class TestDatabases {
+
+    private static EmbeddedPostgres server;
+
+    private TestDatabases() {
+    }
+
+    /**
+     * Creates the database (empty) and points the datasource at it. The quote journal is
+     * given a fresh directory too, so no test reads another's events.
+     */
+    public static synchronized void register(DynamicPropertyRegistry registry, String database) {
+        EmbeddedPostgres postgres = server();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + database);
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + database, e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", database));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        try {
+            String journal = Files.createTempDirectory("quote-journal-" + database).toString();
+            registry.add("quote-journal.directory", () -> journal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException ignored) {
+                    // The JVM is exiting either way
+                }
+            }));
+        }
+        return server;
+    }
+}
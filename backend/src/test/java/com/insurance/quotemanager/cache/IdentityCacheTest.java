@@ -0,0 +1,85 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.model.User;
+import com.insurance.quotemanager.repository.SqlStatementCounter;
+import com.insurance.quotemanager.repository.UserCredentials;
+import com.insurance.quotemanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User credentials are cached between logins and dropped as soon as a user write commits.
+ */
+@SpringBootTest
+class IdentityCacheTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "identity_cache");
+    }
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void credentialsAreServedFromTheCacheUntilTheUserChanges() {
+        User user = userRepository.save(user(UUID.randomUUID() + "@example.com", "first-hash"));
+        assertThat(identityCache.findUserByEmail(user.getEmail())).get()
+                .extracting(UserCredentials::passwordHash).isEqualTo("first-hash");
+
+        SqlStatementCounter.reset();
+        assertThat(identityCache.findUserByEmail(user.getEmail())).isPresent();
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        user.setPassword("second-hash");
+        userRepository.save(user);
+
+        assertThat(identityCache.findUserByEmail(user.getEmail())).get()
+                .extracting(UserCredentials::passwordHash).isEqualTo("second-hash");
+    }
+
+    @Test
+    void newUserCanLogInAfterAnEarlierAttemptFoundNoOne() {
+        String email = UUID.randomUUID() + "@example.com";
+        assertThat(identityCache.findUserByEmail(email)).isEmpty();
+
+        userRepository.save(user(email, "hash"));
+
+        assertThat(identityCache.findUserByEmail(email)).isPresent();
+    }
+
+    @Test
+    void previousEmailStopsResolvingOnceChanged() {
+        String previous = UUID.randomUUID() + "@example.com";
+        User user = userRepository.save(user(previous, "hash"));
+        assertThat(identityCache.findUserByEmail(previous)).isPresent();
+
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        userRepository.save(user);
+
+        assertThat(identityCache.findUserByEmail(previous)).isEmpty();
+        assertThat(identityCache.findUserByEmail(user.getEmail())).get()
+                .extracting(UserCredentials::id).isEqualTo(user.getId());
+    }
+
+    private static User user(String email, String passwordHash) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(passwordHash);
+        user.setFirstName("Una");
+        user.setLastName("User");
+        return user;
+    }
+}
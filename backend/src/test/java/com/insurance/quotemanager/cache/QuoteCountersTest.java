@@ -0,0 +1,73 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteTally;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteCountersTest {
+
+    private static final UUID BROKER = UUID.randomUUID();
+
+    private final QuoteRepository quoteRepository = mock(QuoteRepository.class);
+    private final QuoteCounters counters = new QuoteCounters(quoteRepository);
+
+    @BeforeEach
+    void startWithTwoDrafts() {
+        when(quoteRepository.tallyByBrokerStatusAndInsuranceType()).thenReturn(List.of(drafts(2)));
+        counters.rebuild();
+    }
+
+    @Test
+    void driftIsCorrected() {
+        when(quoteRepository.tallyByBrokerStatusAndInsuranceType()).thenReturn(List.of(drafts(5)));
+
+        assertThat(counters.reconcile()).isEqualTo(1);
+        assertThat(draftCount()).isEqualTo(5);
+    }
+
+    @Test
+    void changeAppliedAfterTheTotalsWereReadIsKept() {
+        // The totals are read, then a quote committed after that is applied before the cells are adjusted
+        when(quoteRepository.tallyByBrokerStatusAndInsuranceType()).thenAnswer(invocation -> {
+            counters.added(drafts(1));
+            return List.of(drafts(2));
+        });
+
+        assertThat(counters.reconcile()).isZero();
+        assertThat(draftCount()).isEqualTo(3);
+    }
+
+    @Test
+    void cellIsCorrectedOnTheNextRunOnceQuiet() {
+        when(quoteRepository.tallyByBrokerStatusAndInsuranceType()).thenAnswer(invocation -> {
+            counters.added(drafts(1));
+            return List.of(drafts(7));
+        });
+        counters.reconcile();
+
+        when(quoteRepository.tallyByBrokerStatusAndInsuranceType()).thenReturn(List.of(drafts(8)));
+
+        assertThat(counters.reconcile()).isEqualTo(1);
+        assertThat(draftCount()).isEqualTo(8);
+    }
+
+    private long draftCount() {
+        return counters.snapshot(BROKER, QuoteStatus.DRAFT, null).stream().mapToLong(QuoteTally::count).sum();
+    }
+
+    private static QuoteTally drafts(long count) {
+        return new QuoteTally(BROKER, QuoteStatus.DRAFT, "home", count,
+                BigDecimal.valueOf(100 * count), BigDecimal.valueOf(1000 * count));
+    }
+}
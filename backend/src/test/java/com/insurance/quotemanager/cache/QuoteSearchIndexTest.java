@@ -0,0 +1,82 @@
+
+package com.insurance.quotemanager.cache;
+
+import com.insurance.quotemanager.dto.QuoteSearchHitDto;
+import com.insurance.quotemanager.dto.QuoteSearchResultDto;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteSearchIndexTest {
+
+    private static final int BROKERS = 4;
+    private static final int QUOTES_PER_BROKER = 25;
+
+    private final QuoteRepository quoteRepository = mock(QuoteRepository.class);
+    private final QuoteSearchIndex index = new QuoteSearchIndex(quoteRepository);
+
+    @BeforeEach
+    void indexQuotes() {
+        List<QuoteSearchDocument> documents = new ArrayList<>();
+        for (int b = 0; b < BROKERS; b++) {
+            UUID brokerId = UUID.randomUUID();
+            for (int q = 0; q < QUOTES_PER_BROKER; q++) {
+                // Every third client is a Smith by name, the rest only live on Smith Street
+                String name = q % 3 == 0 ? String.format("Smith %02d-%d", q, b) : String.format("Jones %02d-%d", q, b);
+                documents.add(new QuoteSearchDocument(UUID.randomUUID(), brokerId, name,
+                        "client" + q + "@example.com", q + " Smith Street", QuoteStatus.DRAFT));
+            }
+        }
+        when(quoteRepository.findAllSearchDocuments()).thenReturn(documents);
+        index.rebuild();
+    }
+
+    @Test
+    void pagesAcrossBrokersFollowTheFullRanking() {
+        QuoteSearchResultDto all = index.search("smith", null, 0, BROKERS * QUOTES_PER_BROKER);
+        assertThat(all.getTotal()).isEqualTo(BROKERS * QUOTES_PER_BROKER);
+        assertThat(all.getItems()).hasSize(BROKERS * QUOTES_PER_BROKER);
+
+        List<QuoteSearchHitDto> paged = new ArrayList<>();
+        for (int offset = 0; offset < all.getTotal(); offset += 7) {
+            QuoteSearchResultDto page = index.search("smith", null, offset, 7);
+            assertThat(page.getTotal()).isEqualTo(all.getTotal());
+            paged.addAll(page.getItems());
+        }
+
+        assertThat(paged).extracting(QuoteSearchHitDto::getId)
+                .containsExactlyElementsOf(all.getItems().stream().map(QuoteSearchHitDto::getId).toList());
+        // Name matches outrank address matches
+        assertThat(paged.subList(0, 9 * BROKERS)).allMatch(hit -> hit.getFullName().startsWith("Smith"));
+    }
+
+    @Test
+    void offsetPastTheLastMatchIsAnEmptyPageWithTheTotal() {
+        QuoteSearchResultDto page = index.search("smith 07", null, 50, 10);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getTotal()).isEqualTo(BROKERS);
+    }
+
+    @Test
+    void tokensDoNotDependOnTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            assertThat(QuoteSearchIndex.tokenize("INDIA Ivy")).containsExactly("india", "ivy");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
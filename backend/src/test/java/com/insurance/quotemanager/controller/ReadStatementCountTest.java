@@ -0,0 +1,206 @@
+
+package com.insurance.quotemanager.controller;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements the read endpoints issue, so an N+1 regression (a
+ * query per quote, per collection or per broker) fails the build instead of showing up
+ * as a budget warning in production logs. Page-size independence is checked by reading
+ * pages of different sizes over the same data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadStatementCountTest {
+
+    private static final int BROKERS = 3;
+    private static final int QUOTES_PER_BROKER = 20;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "read_statement_count");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BrokerRepository brokerRepository;
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    private final List<Broker> brokers = new ArrayList<>();
+    private final List<Quote> quotes = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        for (int b = 0; b < BROKERS; b++) {
+            Broker broker = new Broker();
+            broker.setId(UUID.randomUUID());
+            broker.setFirstName("Broker");
+            broker.setLastName(String.valueOf(b));
+            broker.setEmail("broker" + b + "@example.com");
+            broker.setCompany("Company " + b);
+            brokers.add(brokerRepository.save(broker));
+
+            List<Quote> brokerQuotes = new ArrayList<>();
+            for (int q = 0; q < QUOTES_PER_BROKER; q++) {
+                brokerQuotes.add(quote(broker, q));
+            }
+            quotes.addAll(quoteRepository.saveAll(brokerQuotes));
+        }
+    }
+
+    @Test
+    void quotePageTakesTheSameStatementsWhateverItsSize() throws Exception {
+        int small = statements(get("/quotes").param("limit", "5"));
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/quotes").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50));
+        int large = SqlStatementCounter.count();
+
+        assertThat(small).isEqualTo(large);
+        // The page, then each element collection batch-loaded for the whole page
+        assertThat(large).isEqualTo(3);
+    }
+
+    @Test
+    void brokerQuotePageTakesTheSameStatementsAsAnUnfilteredOne() throws Exception {
+        UUID brokerId = brokers.get(0).getId();
+        int statements = statements(get("/quotes").param("limit", "50").param("brokerId", brokerId.toString())
+                .param("status", "draft"));
+
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void summaryPageIsOneStatement() throws Exception {
+        int statements = statements(get("/quotes").param("limit", "50").param("fields", "summary"));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void quoteDetailLoadsTheQuoteAndItsCollections() throws Exception {
+        int statements = statements(get("/quotes/{id}", quotes.get(0).getId()));
+
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void quoteRevalidationOnlyReadsTheTimestamp() throws Exception {
+        MvcResult first = mockMvc.perform(get("/quotes/{id}", quotes.get(1).getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/quotes/{id}", quotes.get(1).getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void brokerListIsTheVersionThenTheList() throws Exception {
+        int statements = statements(get("/brokers"));
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void brokerListRevalidationOnlyReadsTheVersion() throws Exception {
+        MvcResult first = mockMvc.perform(get("/brokers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BROKERS))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/brokers").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void brokerIsReadOnceThenServedFromTheIdentityCache() throws Exception {
+        UUID brokerId = brokers.get(2).getId();
+
+        assertThat(statements(get("/brokers/{id}", brokerId))).isEqualTo(1);
+        assertThat(statements(get("/brokers/{id}", brokerId))).isZero();
+    }
+
+    @Test
+    void streamedExportIsLeftOutOfTheRequestMeters() throws Exception {
+        mockMvc.perform(get("/quotes/export")).andExpect(request().asyncStarted());
+        statements(get("/quotes").param("limit", "5"));
+
+        assertThat(meterRegistry.find("http.server.requests.sql.statements").tag("uri", "/quotes/export")
+                .summary()).isNull();
+        assertThat(meterRegistry.find("http.server.requests.sql.statements").tag("uri", "/quotes")
+                .summary()).isNotNull();
+    }
+
+    private int statements(RequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return SqlStatementCounter.count();
+    }
+
+    private static Quote quote(Broker broker, int n) {
+        Quote quote = new Quote();
+        quote.setBroker(broker);
+        quote.setFullName("Customer " + n);
+        quote.setEmail("customer" + n + "@example.com");
+        quote.setResidentialAddress(n + " High Street");
+        quote.setSumInsured(BigDecimal.valueOf(250_000 + n * 1_000L));
+        quote.setPolicyStartDate(LocalDate.of(2026, 1, 1));
+        quote.setPolicyEndDate(LocalDate.of(2027, 1, 1));
+        quote.setPolicyDuration("12 months");
+        quote.setRenewalType("annual");
+        quote.setInsuranceType(n % 2 == 0 ? "home" : "contents");
+        quote.setStatus(n % 3 == 0 ? QuoteStatus.DRAFT : QuoteStatus.SUBMITTED);
+        quote.setPremium(BigDecimal.valueOf(500 + n));
+        quote.setFireSafetyMeasures(List.of("smoke alarms", "fire extinguisher"));
+        quote.setSecurityFeatures(List.of("deadlocks"));
+        return quote;
+    }
+}
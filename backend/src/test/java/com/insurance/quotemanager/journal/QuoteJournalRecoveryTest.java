@@ -0,0 +1,91 @@
+
+package com.insurance.quotemanager.journal;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.service.QuoteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup recovery journals exactly the quote changes the journal missed.
+ */
+@SpringBootTest
+class QuoteJournalRecoveryTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "quote_journal_recovery");
+    }
+
+    @Autowired
+    private QuoteJournalRecovery recovery;
+
+    @Autowired
+    private QuoteJournal quoteJournal;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private BrokerRepository brokerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void journalsOnlyWhatChangedBehindItsBack() {
+        UUID untouched = quoteService.createQuote(quote()).getId();
+        UUID edited = quoteService.createQuote(quote()).getId();
+        UUID deleted = quoteService.createQuote(quote()).getId();
+        assertThat(recovery.reconcile()).isZero();
+
+        jdbcTemplate.update("update quotes set residential_address = '2 Low Street' where id = ?", edited);
+        jdbcTemplate.update("delete from quotes where id = ?", deleted);
+
+        assertThat(recovery.reconcile()).isEqualTo(2);
+        assertThat(quoteJournal.latest(untouched).type()).isEqualTo(QuoteEventType.CREATED);
+        assertThat(quoteJournal.latest(edited).type()).isEqualTo(QuoteEventType.RECONCILED);
+        assertThat(quoteJournal.latest(edited).residentialAddress()).isEqualTo("2 Low Street");
+        assertThat(quoteJournal.latest(deleted).type()).isEqualTo(QuoteEventType.DELETED);
+
+        assertThat(recovery.reconcile()).isZero();
+    }
+
+    private QuoteDto quote() {
+        Broker broker = new Broker();
+        broker.setId(UUID.randomUUID());
+        broker.setFirstName("Broker");
+        broker.setLastName("Journal");
+        broker.setEmail(broker.getId() + "@example.com");
+
+        QuoteDto quote = new QuoteDto();
+        quote.setFullName("Customer");
+        quote.setEmail("customer@example.com");
+        quote.setResidentialAddress("1 High Street");
+        quote.setSumInsured(BigDecimal.valueOf(250_000));
+        quote.setPolicyStartDate(LocalDate.of(2026, 1, 1));
+        quote.setPolicyEndDate(LocalDate.of(2027, 1, 1));
+        quote.setPolicyDuration("12 months");
+        quote.setRenewalType("annual");
+        quote.setAutomaticRenewal(true);
+        quote.setIsOccupiedFullTime(true);
+        quote.setInsuranceType("home");
+        quote.setStatus("draft");
+        quote.setPremium(BigDecimal.valueOf(500));
+        quote.setBrokerId(brokerRepository.save(broker).getId());
+        return quote;
+    }
+}
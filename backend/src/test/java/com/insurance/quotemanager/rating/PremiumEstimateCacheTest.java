@@ -0,0 +1,71 @@
+
+package com.insurance.quotemanager.rating;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PremiumEstimateCacheTest {
+
+    private final PremiumEstimateCache cache = new PremiumEstimateCache();
+    private final RatingTableStore store = new RatingTableStore();
+    private final AtomicInteger ratings = new AtomicInteger();
+
+    @Test
+    void repeatedLookupIsAHit() {
+        RatingTables tables = store.current();
+
+        estimate(tables);
+        estimate(tables);
+
+        assertThat(ratings).hasValue(1);
+        assertThat(cache.getStats().hitCount()).isEqualTo(1);
+        assertThat(cache.getStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupAfterATableSwapIsAMissNotAStaleHit() {
+        RatingTables before = store.current();
+        estimate(before);
+
+        RatingTables after = store.reload();
+        PremiumEstimate estimate = estimate(after);
+
+        assertThat(estimate.tables()).isSameAs(after);
+        assertThat(ratings).hasValue(2);
+        assertThat(cache.getStats().hitCount()).isZero();
+        assertThat(cache.getStats().missCount()).isEqualTo(2);
+        assertThat(cache.getStats().hitRate()).isZero();
+    }
+
+    @Test
+    void hitAllocatesNothing() {
+        RatingTables tables = store.current();
+        PremiumEstimateCache.Rater rater = (t, propertyType, region, month, age, coverageAmount) ->
+                new PremiumEstimate(t, 500, 1, 1, 1, 500);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        cache.get(tables, 0, 0, 0, 10, 250_000, rater);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            cache.get(tables, 0, 0, 0, 10, 250_000, rater);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(cache.getStats().hitCount()).isEqualTo(100_000);
+        // A key or a capturing loader per hit would be tens of bytes each
+        assertThat(allocated).isLessThan(100_000);
+    }
+
+    private PremiumEstimate estimate(RatingTables tables) {
+        return cache.get(tables, 0, 0, 0, 10, 250_000, (t, propertyType, region, month, age, coverageAmount) -> {
+            ratings.incrementAndGet();
+            return new PremiumEstimate(t, 500, 1, 1, 1, 500);
+        });
+    }
+}
@@ -0,0 +1,329 @@
+
+package com.insurance.quotemanager.repository;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the quote finders and the keyset listing are planned onto the indexes the
+ * migrations create for them. Each query is captured, with its bound parameters, as the
+ * repository sends it to PostgreSQL, then prepared and {@code EXPLAIN}ed with the same
+ * values against a migrated table seeded and analyzed to look like production: most
+ * quotes closed (bound or rejected), a few still being worked.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QuoteQueryPlanTest {
+
+    private static final int BROKERS = 20;
+    private static final int QUOTES = 50_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "quote_query_plan");
+    }
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID brokerId;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO brokers (id, email, first_name, last_name, created_at, updated_at)
+                SELECT gen_random_uuid(), 'broker' || b || '@example.com', 'Broker', b::text, now(), now()
+                FROM generate_series(1, ?) b""", BROKERS);
+        // Per 100 quotes: 75 bound, 10 rejected, 7 draft, 5 submitted, 3 approved
+        jdbcTemplate.update("""
+                INSERT INTO quotes (id, full_name, email, residential_address, is_occupied_full_time,
+                                    sum_insured, policy_start_date, policy_end_date, policy_duration,
+                                    renewal_type, automatic_renewal, insurance_type, status, premium,
+                                    broker_id, version, created_at, updated_at)
+                SELECT gen_random_uuid(), 'Customer ' || n, 'customer' || n || '@example.com', n || ' High Street',
+                       true, 250000, DATE '2026-01-01', DATE '2027-01-01', '12 months', 'annual', true,
+                       CASE WHEN n % 2 = 0 THEN 'home' ELSE 'contents' END,
+                       CASE WHEN n % 100 < 75 THEN 4 WHEN n % 100 < 85 THEN 3 WHEN n % 100 < 92 THEN 0
+                            WHEN n % 100 < 97 THEN 1 ELSE 2 END,
+                       500 + n % 1000, brokers.ids[1 + (n / 100) % ?], 0,
+                       now() - n * INTERVAL '1 minute', now() - n * INTERVAL '1 minute'
+                FROM generate_series(1, ?) n,
+                     (SELECT array_agg(id ORDER BY email) AS ids FROM brokers) brokers""", BROKERS, QUOTES);
+        jdbcTemplate.execute("ANALYZE brokers");
+        jdbcTemplate.execute("ANALYZE quotes");
+        brokerId = jdbcTemplate.queryForObject("SELECT id FROM brokers ORDER BY email LIMIT 1", UUID.class);
+    }
+
+    @Test
+    void firstPageWalksTheCreatedAtIndex() {
+        String plan = explain(() -> findPage(new QuoteSearchCriteria(), null));
+
+        assertUsesIndex(plan, "idx_quotes_created_at_id");
+    }
+
+    @Test
+    void laterPageSeeksPastTheCursorInTheCreatedAtIndex() {
+        QuoteCursor after = cursorAfterFirstPage(new QuoteSearchCriteria());
+
+        String plan = explain(() -> findPage(new QuoteSearchCriteria(), after));
+
+        assertUsesIndex(plan, "idx_quotes_created_at_id");
+        assertSeeksToCursor(plan);
+    }
+
+    @Test
+    void brokerPageWalksTheBrokerIndex() {
+        QuoteSearchCriteria criteria = new QuoteSearchCriteria();
+        criteria.setBrokerId(brokerId);
+        QuoteCursor after = cursorAfterFirstPage(criteria);
+
+        String plan = explain(() -> findPage(criteria, after));
+
+        assertUsesIndex(plan, "idx_quotes_broker_created_at_id");
+        assertSeeksToCursor(plan);
+    }
+
+    @Test
+    void activeStatusPageWalksTheActiveStatusIndex() {
+        QuoteSearchCriteria criteria = new QuoteSearchCriteria();
+        criteria.setStatus("submitted");
+        QuoteCursor after = cursorAfterFirstPage(criteria);
+
+        String plan = explain(() -> findPage(criteria, after));
+
+        assertUsesIndex(plan, "idx_quotes_active_status_created_at_id");
+        assertSeeksToCursor(plan);
+    }
+
+    // Closed quotes are most of the table, so a page of them is found within a few rows of
+    // the date index and needs no status index of its own
+    @Test
+    void closedStatusPageWalksTheCreatedAtIndex() {
+        QuoteSearchCriteria criteria = new QuoteSearchCriteria();
+        criteria.setStatus("rejected");
+        QuoteCursor after = cursorAfterFirstPage(criteria);
+
+        String plan = explain(() -> findPage(criteria, after));
+
+        assertUsesIndex(plan, "idx_quotes_created_at_id");
+        assertSeeksToCursor(plan);
+    }
+
+    @Test
+    void brokerAndClosedStatusPageWalksTheBrokerIndex() {
+        QuoteSearchCriteria criteria = new QuoteSearchCriteria();
+        criteria.setBrokerId(brokerId);
+        criteria.setStatus("rejected");
+
+        String plan = explain(() -> findPage(criteria, null));
+
+        assertUsesIndex(plan, "idx_quotes_broker_created_at_id");
+    }
+
+    @Test
+    void findByActiveStatusUsesTheActiveStatusIndex() {
+        String plan = explain(() -> quoteRepository.findByStatus(QuoteStatus.SUBMITTED));
+
+        assertUsesIndex(plan, "idx_quotes_active_status_created_at_id");
+    }
+
+    @Test
+    void findByBrokerAndActiveStatusUsesTheActiveBrokerIndex() {
+        String plan = explain(() -> quoteRepository.findByBrokerIdAndStatus(brokerId, QuoteStatus.DRAFT));
+
+        assertUsesIndex(plan, "idx_quotes_active_broker_status_created_at_id");
+    }
+
+    @Test
+    void findByBrokerAndClosedStatusOnlyReadsTheBrokersQuotes() {
+        String plan = explain(() -> quoteRepository.findByBrokerIdAndStatus(brokerId, QuoteStatus.REJECTED));
+
+        assertThat(plan).as("plan seeks to the broker:%n%s", plan)
+                .containsPattern("Index Cond: \\(broker_id = ");
+    }
+
+    @Test
+    void findByBrokerReadsTheForeignKeyWithoutJoiningBrokers() {
+        String plan = explain(() -> quoteRepository.findByBrokerIdAndStatus(brokerId, QuoteStatus.DRAFT));
+
+        assertThat(plan).doesNotContain("brokers");
+    }
+
+    private List<Quote> findPage(QuoteSearchCriteria criteria, QuoteCursor after) {
+        return quoteRepository.findPage(criteria, QuoteSortField.CREATED_AT, Sort.Direction.DESC, after, 51);
+    }
+
+    private QuoteCursor cursorAfterFirstPage(QuoteSearchCriteria criteria) {
+        List<Quote> page = findPage(criteria, null);
+        return QuoteCursor.after(page.get(page.size() - 1), QuoteSortField.CREATED_AT, Sort.Direction.DESC);
+    }
+
+    // Runs the query once, then EXPLAINs the first statement it sent with the values it bound
+    private String explain(Runnable query) {
+        StatementRecorder.start();
+        List<RecordedStatement> recorded;
+        try {
+            query.run();
+        } finally {
+            recorded = StatementRecorder.stop();
+        }
+        RecordedStatement statement = recorded.get(0);
+
+        StringBuilder sql = new StringBuilder();
+        int parameter = 0;
+        for (char c : statement.sql().toCharArray()) {
+            if (c == '?') {
+                sql.append('$').append(++parameter);
+            } else {
+                sql.append(c);
+            }
+        }
+        String values = statement.parameters().values().stream()
+                .map(value -> value == null ? "NULL" : "'" + value.toString().replace("'", "''") + "'")
+                .collect(Collectors.joining(", "));
+
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (var statements = connection.createStatement()) {
+                statements.execute("PREPARE plan_probe AS " + sql);
+                try {
+                    List<String> lines = new ArrayList<>();
+                    try (var rows = statements.executeQuery("EXPLAIN (COSTS OFF) EXECUTE plan_probe("
+                            + values + ")")) {
+                        while (rows.next()) {
+                            lines.add(rows.getString(1));
+                        }
+                    }
+                    return String.join("\n", lines);
+                } finally {
+                    statements.execute("DEALLOCATE plan_probe");
+                }
+            }
+        });
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertThat(plan.contains("Index Scan using " + index + " ")
+                || plan.contains("Index Scan Backward using " + index + " ")
+                || plan.contains("Index Only Scan using " + index + " ")
+                || plan.contains("Bitmap Index Scan on " + index + "\n")
+                || plan.endsWith("Bitmap Index Scan on " + index))
+                .as("plan uses %s:%n%s", index, plan)
+                .isTrue();
+    }
+
+    // The scan starts at the cursor instead of filtering every row before it
+    private static void assertSeeksToCursor(String plan) {
+        assertThat(plan.lines().anyMatch(line -> line.contains("Index Cond:") && line.contains("created_at <=")))
+                .as("index scan starts at the cursor:%n%s", plan)
+                .isTrue();
+    }
+
+    private record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Wraps the datasource so statements prepared on the recording thread are kept, with
+     * the values bound to them, instead of being reconstructed from the query methods.
+     */
+    @TestConfiguration
+    static class StatementRecorder {
+
+        private static final ThreadLocal<List<RecordedStatement>> RECORDED = new ThreadLocal<>();
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static List<RecordedStatement> stop() {
+            List<RecordedStatement> recorded = RECORDED.get();
+            RECORDED.remove();
+            return recorded;
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> {
+                        Object result = invoke(method, target, args);
+                        if (result instanceof Connection connection) {
+                            return proxy(Connection.class, connection);
+                        }
+                        List<RecordedStatement> recorded = RECORDED.get();
+                        if (recorded != null && result instanceof PreparedStatement statement
+                                && method.getName().equals("prepareStatement")) {
+                            RecordedStatement entry = new RecordedStatement((String) args[0], new TreeMap<>());
+                            recorded.add(entry);
+                            return binding(statement, entry.parameters());
+                        }
+                        return result;
+                    });
+        }
+
+        // Keeps each value bound by position; setNull binds null
+        private static PreparedStatement binding(PreparedStatement target, Map<Integer, Object> parameters) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                        }
+                        return invoke(method, target, args);
+                    });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+
+package com.insurance.quotemanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.quotemanager.dto.PremiumCalculationResultDto;
+import com.insurance.quotemanager.dto.QuoteDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PremiumBatchEstimationServiceTest {
+
+    private static final int RECORDS = 10;
+
+    private final PremiumCalculationService premiumCalculationService = mock(PremiumCalculationService.class);
+    private final PremiumBatchEstimationService service = new PremiumBatchEstimationService(
+            premiumCalculationService, new ObjectMapper().findAndRegisterModules(), 1024, 1, 64);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void firstResultsAreFlushedWithoutWaitingForTheWholeBatch() throws Exception {
+        // The last record is only rated once something has reached the client
+        when(premiumCalculationService.calculatePremium(any())).thenAnswer(invocation -> {
+            if (invocation.<QuoteDto>getArgument(0).getFullName().equals("q" + (RECORDS - 1))) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return new PremiumCalculationResultDto();
+        });
+        RecordingOutput output = new RecordingOutput();
+
+        service.estimate(input(), output);
+
+        String firstFlush = output.firstFlush;
+        assertThat(firstFlush).isNotNull().doesNotContain("summary");
+        assertThat(firstFlush.lines().count()).isBetween(1L, RECORDS - 1L);
+    }
+
+    @Test
+    void queuedRecordsAreCancelledWhenTheClientGoesAway() throws Exception {
+        // The first record finishes, the second holds the only worker, the rest queue behind it
+        when(premiumCalculationService.calculatePremium(any())).thenAnswer(invocation -> {
+            if (!invocation.<QuoteDto>getArgument(0).getFullName().equals("q0")) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return new PremiumCalculationResultDto();
+        });
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> service.estimate(input(), disconnected)).hasMessage("Broken pipe");
+        release.countDown();
+
+        verify(premiumCalculationService, after(500).atMost(2)).calculatePremium(any());
+    }
+
+    private static InputStream input() {
+        String records = IntStream.range(0, RECORDS)
+                .mapToObj(i -> "{\"fullName\":\"q" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+        return new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private final class RecordingOutput extends ByteArrayOutputStream {
+        private String firstFlush;
+
+        @Override
+        public void flush() {
+            if (firstFlush == null) {
+                firstFlush = toString(StandardCharsets.UTF_8);
+            }
+            release.countDown();
+        }
+    }
+}
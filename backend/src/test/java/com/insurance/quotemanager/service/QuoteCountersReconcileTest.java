@@ -0,0 +1,146 @@
+
+package com.insurance.quotemanager.service;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.cache.QuoteCounters;
+import com.insurance.quotemanager.dto.QuoteDto;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.repository.QuoteTally;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A reconciliation that reads the database totals after a quote write has committed, but
+ * before the write's delta reaches the counters, must not count the quote twice.
+ */
+@SpringBootTest
+class QuoteCountersReconcileTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "quote_counters_reconcile");
+    }
+
+    @SpyBean
+    private QuoteCounters quoteCounters;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private QuoteImportService quoteImportService;
+
+    @Autowired
+    private BrokerRepository brokerRepository;
+
+    private UUID brokerId;
+
+    @BeforeEach
+    void seedBroker() {
+        Broker broker = new Broker();
+        broker.setId(UUID.randomUUID());
+        broker.setFirstName("Broker");
+        broker.setLastName("Counters");
+        broker.setEmail(broker.getId() + "@example.com");
+        brokerId = brokerRepository.save(broker).getId();
+        quoteCounters.rebuild();
+
+        Answer<Object> reconcileBeforeApplying = invocation -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // After-commit callbacks run before the counters' after-completion update
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        quoteCounters.reconcile();
+                    }
+                });
+            } else {
+                // Reported outside a transaction: the row has already committed
+                quoteCounters.reconcile();
+            }
+            return invocation.callRealMethod();
+        };
+        doAnswer(reconcileBeforeApplying).when(quoteCounters).added(any());
+        doAnswer(reconcileBeforeApplying).when(quoteCounters).changed(any(), any());
+    }
+
+    @Test
+    void createdQuoteIsCountedOnce() {
+        quoteService.createQuote(quote("home"));
+
+        assertThat(count("home")).isEqualTo(1);
+    }
+
+    @Test
+    void updatedQuoteMovesBetweenCellsOnce() {
+        QuoteDto created = quoteService.createQuote(quote("home"));
+
+        quoteService.updateQuote(created.getId(), quote("contents"));
+
+        assertThat(count("home")).isZero();
+        assertThat(count("contents")).isEqualTo(1);
+    }
+
+    @Test
+    void importedQuotesAreCountedOnce() throws Exception {
+        String records = String.join("\n", record("Ann"), record("Bob"));
+
+        quoteImportService.importQuotes(new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8)),
+                QuoteFileFormat.NDJSON, new ByteArrayOutputStream());
+
+        assertThat(count("home")).isEqualTo(2);
+    }
+
+    private long count(String insuranceType) {
+        return quoteCounters.snapshot(brokerId, QuoteStatus.DRAFT, insuranceType).stream()
+                .mapToLong(QuoteTally::count).sum();
+    }
+
+    private QuoteDto quote(String insuranceType) {
+        QuoteDto quote = new QuoteDto();
+        quote.setFullName("Customer");
+        quote.setEmail("customer@example.com");
+        quote.setResidentialAddress("1 High Street");
+        quote.setSumInsured(BigDecimal.valueOf(250_000));
+        quote.setPolicyStartDate(LocalDate.of(2026, 1, 1));
+        quote.setPolicyEndDate(LocalDate.of(2027, 1, 1));
+        quote.setPolicyDuration("12 months");
+        quote.setRenewalType("annual");
+        quote.setAutomaticRenewal(true);
+        quote.setIsOccupiedFullTime(true);
+        quote.setInsuranceType(insuranceType);
+        quote.setStatus("draft");
+        quote.setPremium(BigDecimal.valueOf(500));
+        quote.setBrokerId(brokerId);
+        return quote;
+    }
+
+    private String record(String fullName) {
+        return "{\"fullName\":\"" + fullName + "\",\"email\":\"customer@example.com\","
+                + "\"residentialAddress\":\"1 High Street\",\"sumInsured\":250000,"
+                + "\"policyStartDate\":\"2026-01-01\",\"policyEndDate\":\"2027-01-01\","
+                + "\"policyDuration\":\"12 months\",\"renewalType\":\"annual\",\"insuranceType\":\"home\","
+                + "\"brokerId\":\"" + brokerId + "\"}";
+    }
+}
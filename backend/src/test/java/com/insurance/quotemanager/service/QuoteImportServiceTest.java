@@ -0,0 +1,155 @@
+
+package com.insurance.quotemanager.service;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.dto.QuoteImportSummaryDto;
+import com.insurance.quotemanager.dto.QuoteSearchCriteria;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "quotes.import.chunk-size=3")
+class QuoteImportServiceTest {
+
+    private static final String HEADER = "\"fullName\",\"email\",\"residentialAddress\",\"sumInsured\","
+            + "\"policyStartDate\",\"policyEndDate\",\"policyDuration\",\"renewalType\",\"insuranceType\","
+            + "\"brokerId\",\"createdAt\",\"updatedAt\"";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "quote_import");
+    }
+
+    @Autowired
+    private QuoteImportService quoteImportService;
+
+    @Autowired
+    private QuoteExportService quoteExportService;
+
+    @Autowired
+    private BrokerRepository brokerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID brokerId;
+
+    @BeforeEach
+    void seedBroker() {
+        Broker broker = new Broker();
+        broker.setId(UUID.randomUUID());
+        broker.setFirstName("Broker");
+        broker.setLastName("Import");
+        broker.setEmail(broker.getId() + "@example.com");
+        brokerId = brokerRepository.save(broker).getId();
+    }
+
+    @Test
+    void rowTheDatabaseRejectsIsTheOnlyOneReported() throws Exception {
+        String tooLong = "x".repeat(300);
+        String csv = String.join("\n", HEADER,
+                row("Ann", "", ""),
+                row(tooLong, "", ""),
+                row("Bob", "", ""),
+                row("Cat", "", ""));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+        QuoteImportSummaryDto summary = quoteImportService.importQuotes(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), QuoteFileFormat.CSV, report);
+
+        assertThat(summary.getImported()).isEqualTo(3);
+        assertThat(summary.getFailed()).isEqualTo(1);
+        List<String> lines = report.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"row\":2").contains("too long");
+        assertThat(names()).containsExactlyInAnyOrder("Ann", "Bob", "Cat");
+    }
+
+    @Test
+    void timestampsFromTheFileAreKept() throws Exception {
+        String csv = String.join("\n", HEADER,
+                row("Dee", "2024-03-01T09:30:00", "2024-04-02T10:00:00"),
+                row("Eve", "", ""));
+
+        quoteImportService.importQuotes(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                QuoteFileFormat.CSV, new ByteArrayOutputStream());
+
+        assertThat(timestamp("created_at", "Dee")).isEqualTo(LocalDateTime.of(2024, 3, 1, 9, 30));
+        assertThat(timestamp("updated_at", "Dee")).isEqualTo(LocalDateTime.of(2024, 4, 2, 10, 0));
+        assertThat(timestamp("created_at", "Eve")).isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    @Test
+    void malformedRecordIsReportedAndTheRestImported() throws Exception {
+        String csv = String.join("\n", HEADER,
+                row("Fay", "", ""),
+                row("Gus", "", "").replace("250000", "lots"),
+                row("Hal", "", ""));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+        QuoteImportSummaryDto summary = quoteImportService.importQuotes(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), QuoteFileFormat.CSV, report);
+
+        assertThat(summary.getImported()).isEqualTo(2);
+        assertThat(report.toString(StandardCharsets.UTF_8).lines().toList().get(0))
+                .contains("\"row\":2").contains("Malformed record");
+        assertThat(names()).containsExactlyInAnyOrder("Fay", "Hal");
+    }
+
+    @Test
+    void exportedCsvImportsBackUnchanged() throws Exception {
+        String address = "Flat 2, \"The Mews\"\n1 High Street";
+        String record = "{\"fullName\":\"Ivy\",\"email\":\"customer@example.com\","
+                + "\"residentialAddress\":\"Flat 2, \\\"The Mews\\\"\\n1 High Street\",\"sumInsured\":250000,"
+                + "\"policyStartDate\":\"2026-01-01\",\"policyEndDate\":\"2027-01-01\","
+                + "\"policyDuration\":\"12 months\",\"renewalType\":\"annual\",\"insuranceType\":\"home\","
+                + "\"fireSafetyMeasures\":[\"alarm; mains wired\",\"C:\\\\extinguisher\"],"
+                + "\"brokerId\":\"" + brokerId + "\"}";
+        quoteImportService.importQuotes(new ByteArrayInputStream(record.getBytes(StandardCharsets.UTF_8)),
+                QuoteFileFormat.NDJSON, new ByteArrayOutputStream());
+
+        QuoteSearchCriteria criteria = new QuoteSearchCriteria();
+        criteria.setBrokerId(brokerId);
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        quoteExportService.exportQuotes(criteria, QuoteFileFormat.CSV, exported);
+        QuoteImportSummaryDto summary = quoteImportService.importQuotes(
+                new ByteArrayInputStream(exported.toByteArray()), QuoteFileFormat.CSV, new ByteArrayOutputStream());
+
+        assertThat(summary.getImported()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT residential_address FROM quotes WHERE broker_id = ?",
+                String.class, brokerId)).containsExactly(address, address);
+        assertThat(jdbcTemplate.queryForList("SELECT m.measure FROM quote_fire_safety_measures m "
+                + "JOIN quotes q ON q.id = m.quote_id WHERE q.broker_id = ?", String.class, brokerId))
+                .containsExactlyInAnyOrder("alarm; mains wired", "C:\\extinguisher",
+                        "alarm; mains wired", "C:\\extinguisher");
+    }
+
+    private String row(String fullName, String createdAt, String updatedAt) {
+        return String.join(",", fullName, "customer@example.com", "\"1 High Street, Town\"", "250000",
+                "2026-01-01", "2027-01-01", "12 months", "annual", "home", brokerId.toString(), createdAt, updatedAt);
+    }
+
+    private List<String> names() {
+        return jdbcTemplate.queryForList("SELECT full_name FROM quotes WHERE broker_id = ?", String.class, brokerId);
+    }
+
+    private LocalDateTime timestamp(String column, String fullName) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM quotes WHERE broker_id = ? AND full_name = ?",
+                LocalDateTime.class, brokerId, fullName);
+    }
+}
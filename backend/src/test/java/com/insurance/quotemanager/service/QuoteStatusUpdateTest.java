@@ -0,0 +1,182 @@
+
+package com.insurance.quotemanager.service;
+
+import com.insurance.quotemanager.TestDatabases;
+import com.insurance.quotemanager.cache.QuoteCounters;
+import com.insurance.quotemanager.dto.QuoteEventDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkResultDto;
+import com.insurance.quotemanager.dto.QuoteStatusBulkUpdateDto;
+import com.insurance.quotemanager.dto.QuoteStatusDto;
+import com.insurance.quotemanager.exception.ConflictException;
+import com.insurance.quotemanager.model.Broker;
+import com.insurance.quotemanager.model.Quote;
+import com.insurance.quotemanager.model.QuoteStatus;
+import com.insurance.quotemanager.repository.BrokerRepository;
+import com.insurance.quotemanager.repository.QuoteRepository;
+import com.insurance.quotemanager.repository.QuoteTally;
+import com.insurance.quotemanager.repository.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Status moves against a migrated PostgreSQL database: each is a single
+ * {@code UPDATE ... RETURNING} statement, and the previous status it returns is what the
+ * live counters and the journal are updated from.
+ */
+@SpringBootTest
+class QuoteStatusUpdateTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.register(registry, "quote_status_update");
+    }
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    @Autowired
+    private BrokerRepository brokerRepository;
+
+    @Autowired
+    private QuoteCounters quoteCounters;
+
+    private Broker broker;
+
+    @BeforeEach
+    void seedBroker() {
+        broker = new Broker();
+        broker.setId(UUID.randomUUID());
+        broker.setFirstName("Broker");
+        broker.setLastName("Status");
+        broker.setEmail(broker.getId() + "@example.com");
+        brokerRepository.save(broker);
+    }
+
+    @Test
+    void moveIsOneStatementAndUpdatesCountersAndJournal() {
+        Quote quote = save(QuoteStatus.SUBMITTED);
+        quoteCounters.rebuild();
+
+        SqlStatementCounter.reset();
+        QuoteStatusDto result = quoteService.updateQuoteStatus(quote.getId(), "approved", "submitted", 0L);
+
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(result.getStatus()).isEqualTo("approved");
+        assertThat(result.getVersion()).isEqualTo(1L);
+        assertThat(quoteRepository.findById(quote.getId())).get()
+                .extracting(Quote::getStatus).isEqualTo(QuoteStatus.APPROVED);
+        assertThat(count(QuoteStatus.SUBMITTED)).isZero();
+        assertThat(count(QuoteStatus.APPROVED)).isEqualTo(1);
+
+        List<QuoteEventDto> history = quoteService.getQuoteHistory(quote.getId());
+        QuoteEventDto last = history.get(history.size() - 1);
+        assertThat(last.getStatus()).isEqualTo("approved");
+        assertThat(last.getPreviousStatus()).isEqualTo("submitted");
+    }
+
+    @Test
+    void unconditionalMoveReturnsTheNewVersion() {
+        Quote quote = save(QuoteStatus.DRAFT);
+
+        QuoteStatusDto submitted = quoteService.updateQuoteStatus(quote.getId(), "submitted", null, null);
+        QuoteStatusDto approved = quoteService.updateQuoteStatus(quote.getId(), "approved", null,
+                submitted.getVersion());
+
+        assertThat(submitted.getVersion()).isEqualTo(1L);
+        assertThat(approved.getVersion()).isEqualTo(2L);
+        assertThat(quoteRepository.findById(quote.getId())).get()
+                .extracting(Quote::getVersion).isEqualTo(2L);
+    }
+
+    @Test
+    void moveOutsideTheLifecycleIsAConflict() {
+        Quote quote = save(QuoteStatus.BOUND);
+
+        assertThatThrownBy(() -> quoteService.updateQuoteStatus(quote.getId(), "draft", null, null))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("cannot move from status bound to draft");
+    }
+
+    @Test
+    void staleVersionIsAConflict() {
+        Quote quote = save(QuoteStatus.DRAFT);
+
+        assertThatThrownBy(() -> quoteService.updateQuoteStatus(quote.getId(), "submitted", null, 7L))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("no longer in the expected version 7");
+        assertThat(quoteRepository.findById(quote.getId())).get()
+                .extracting(Quote::getStatus).isEqualTo(QuoteStatus.DRAFT);
+    }
+
+    @Test
+    void missingQuoteIsNotFound() {
+        UUID id = UUID.randomUUID();
+
+        assertThatThrownBy(() -> quoteService.updateQuoteStatus(id, "submitted", null, null))
+                .hasMessageContaining("Quote not found with id: " + id);
+    }
+
+    @Test
+    void bulkMoveSkipsQuotesThatCannotMoveInOneStatement() {
+        Quote draft = save(QuoteStatus.DRAFT);
+        Quote rejected = save(QuoteStatus.REJECTED);
+        Quote bound = save(QuoteStatus.BOUND);
+        quoteCounters.rebuild();
+        long draftsBefore = count(QuoteStatus.DRAFT);
+
+        QuoteStatusBulkUpdateDto request = new QuoteStatusBulkUpdateDto();
+        request.setIds(List.of(draft.getId(), rejected.getId(), bound.getId()));
+        request.setStatus("draft");
+        SqlStatementCounter.reset();
+        QuoteStatusBulkResultDto result = quoteService.updateQuoteStatuses(request);
+
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(result.getRequested()).isEqualTo(3);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(quoteRepository.findById(bound.getId())).get()
+                .extracting(Quote::getStatus).isEqualTo(QuoteStatus.BOUND);
+        // The draft stays a draft and the rejected quote joins it
+        assertThat(count(QuoteStatus.DRAFT)).isEqualTo(draftsBefore + 1);
+        assertThat(count(QuoteStatus.REJECTED)).isZero();
+        assertThat(count(QuoteStatus.BOUND)).isEqualTo(1);
+
+        List<QuoteEventDto> history = quoteService.getQuoteHistory(rejected.getId());
+        assertThat(history.get(history.size() - 1).getPreviousStatus()).isEqualTo("rejected");
+    }
+
+    private long count(QuoteStatus status) {
+        return quoteCounters.snapshot(broker.getId(), status, null).stream().mapToLong(QuoteTally::count).sum();
+    }
+
+    private Quote save(QuoteStatus status) {
+        Quote quote = new Quote();
+        quote.setBroker(broker);
+        quote.setFullName("Customer");
+        quote.setEmail("customer@example.com");
+        quote.setResidentialAddress("1 High Street");
+        quote.setSumInsured(BigDecimal.valueOf(250_000));
+        quote.setPolicyStartDate(LocalDate.of(2026, 1, 1));
+        quote.setPolicyEndDate(LocalDate.of(2027, 1, 1));
+        quote.setPolicyDuration("12 months");
+        quote.setRenewalType("annual");
+        quote.setInsuranceType("home");
+        quote.setStatus(status);
+        quote.setPremium(BigDecimal.valueOf(500));
+        return quoteRepository.save(quote);
+    }
+}